@@ -0,0 +1,125 @@
+package com.modelling.guiservice.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.modelling.guiservice.config.properties.CacheProperties;
+import com.modelling.guiservice.dto.response.ModelResponse;
+import com.modelling.guiservice.model.ImageVariant;
+import com.modelling.guiservice.model.ModelImage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of full profiles by id, bounded by an estimate of their heap size.
+ * Writes invalidate exactly the profile they touched, here and through the {@link ProfileInvalidationBus}.
+ */
+@Component
+@Slf4j
+public class ProfileCache {
+
+    private final boolean enabled;
+    private final AsyncCache<String, ModelResponse> cache;
+    private final ProfileInvalidationBus invalidationBus;
+
+    public ProfileCache(CacheProperties cacheProperties, ObjectProvider<ProfileInvalidationBus> invalidationBus) {
+        CacheProperties.ProfileCacheConfig config = cacheProperties.getProfile();
+        this.enabled = config.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxSize().toBytes())
+                .weigher((String id, ModelResponse profile) -> estimateSize(profile))
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .buildAsync();
+        this.invalidationBus = invalidationBus.getIfAvailable(() -> new ProfileInvalidationBus() {
+            @Override
+            public void publish(String id) {
+            }
+
+            @Override
+            public void subscribe(Consumer<String> listener) {
+            }
+        });
+        this.invalidationBus.subscribe(this::evictLocal);
+        log.info("Profile cache enabled: {}, ttl: {}, max size: {}", enabled, config.getTtl(), config.getMaxSize());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached profile, or runs {@code loader} once for all concurrent callers of the same id.
+     * A load completing with null (profile not found) is not cached.
+     */
+    public CompletableFuture<ModelResponse> get(String id, Function<String, CompletableFuture<ModelResponse>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return cache.get(id, (key, executor) -> loader.apply(key));
+    }
+
+    public void invalidate(String id) {
+        evictLocal(id);
+        invalidationBus.publish(id);
+    }
+
+    public void invalidateAll() {
+        evictLocal(null);
+        invalidationBus.publish(null);
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.synchronous().stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("size", cache.synchronous().estimatedSize());
+        result.put("weightBytes", cache.synchronous().policy().eviction()
+                .flatMap(eviction -> eviction.weightedSize().stream().boxed().findFirst())
+                .orElse(0L));
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("loadFailureCount", stats.loadFailureCount());
+        result.put("averageLoadPenaltyMillis", stats.averageLoadPenalty() / 1_000_000);
+        result.put("evictionCount", stats.evictionCount());
+        result.put("evictionWeightBytes", stats.evictionWeight());
+        return result;
+    }
+
+    private void evictLocal(String id) {
+        if (id == null) {
+            cache.synchronous().invalidateAll();
+            log.debug("Profile cache cleared");
+        } else {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    // Rough heap footprint: fixed object overhead plus two bytes per character
+    private static int estimateSize(ModelResponse profile) {
+        long size = 256 + chars(profile.getId()) + chars(profile.getName()) + chars(profile.getEyes());
+        if (profile.getImages() != null) {
+            for (ModelImage image : profile.getImages()) {
+                size += 64 + chars(image.getUrl()) + chars(image.getType());
+                if (image.getVariants() != null) {
+                    for (ImageVariant variant : image.getVariants()) {
+                        size += 64 + chars(variant.getName()) + chars(variant.getUrl());
+                    }
+                }
+            }
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0 : 2L * value.length();
+    }
+}
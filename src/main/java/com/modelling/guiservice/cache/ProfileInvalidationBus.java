@@ -0,0 +1,21 @@
+package com.modelling.guiservice.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries profile cache invalidations between service instances. Declare a bean implementing it
+ * (Redis pub/sub, a message topic, ...) to keep several instances coherent; without one only the
+ * local cache is invalidated and other instances rely on the entry ttl.
+ */
+public interface ProfileInvalidationBus {
+
+    /**
+     * Tells the other instances to drop the profile, or every profile when {@code id} is null.
+     */
+    void publish(String id);
+
+    /**
+     * Registers the local cache, called for invalidations published by other instances.
+     */
+    void subscribe(Consumer<String> listener);
+}
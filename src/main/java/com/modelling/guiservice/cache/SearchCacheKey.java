@@ -0,0 +1,64 @@
+package com.modelling.guiservice.cache;
+
+import com.modelling.guiservice.dto.request.FacetRequest;
+import com.modelling.guiservice.dto.request.ViewRequest;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Sort;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Normalized shape of a {@link ViewRequest}, so that requests differing only in map ordering,
+ * exclusion list ordering or blank values share one cache entry.
+ */
+public record SearchCacheKey(Map<String, Object> fieldSearchMap,
+                             String globalSearch,
+                             int page,
+                             int pageSize,
+                             String sortField,
+                             Sort.Direction sortDirection,
+                             Set<String> fields,
+                             List<FacetRequest> facets) {
+
+    public static SearchCacheKey of(ViewRequest request, String sortField, Sort.Direction sortDirection) {
+        return new SearchCacheKey(
+                normalizeMap(request.getFieldSearchMap()),
+                StringUtils.trimToNull(request.getGlobalSearch()),
+                request.getPage(),
+                request.getPageSize(),
+                sortField,
+                sortDirection,
+                request.getFields() != null ? new TreeSet<>(request.getFields()) : Collections.emptySet(),
+                request.getFacets() != null ? request.getFacets().stream().filter(Objects::nonNull).toList() : Collections.emptyList());
+    }
+
+    private static Map<String, Object> normalizeMap(Map<?, ?> map) {
+        if (map == null || map.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> normalized = new TreeMap<>();
+        map.forEach((key, value) -> {
+            Object normalizedValue = normalizeValue(value);
+            if (normalizedValue != null) {
+                normalized.put(String.valueOf(key), normalizedValue);
+            }
+        });
+        return Collections.unmodifiableMap(normalized);
+    }
+
+    private static Object normalizeValue(Object value) {
+        if (value instanceof String stringValue) {
+            return StringUtils.isBlank(stringValue) ? null : stringValue;
+        } else if (value instanceof Map<?, ?> mapValue) {
+            return normalizeMap(mapValue);
+        } else if (value instanceof Collection<?> listValue) {
+            // Exclusion lists behave as sets, their order does not change the result
+            return listValue.stream()
+                    .map(String::valueOf)
+                    .sorted()
+                    .collect(Collectors.toUnmodifiableList());
+        }
+        return value;
+    }
+}
@@ -0,0 +1,98 @@
+package com.modelling.guiservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.modelling.guiservice.config.properties.CacheProperties;
+import com.modelling.guiservice.dto.helper.FacetBucket;
+import com.modelling.guiservice.dto.response.ModelResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of search pages in front of Elasticsearch.
+ * Any write can move a document in or out of any cached page (or shift the total), so writes clear the whole cache.
+ */
+@Component
+@Slf4j
+public class SearchResultCache {
+
+    // Generation handed out while the last write may not be searchable yet, never equal to the current one
+    private static final long UNCACHEABLE = -1;
+
+    private final boolean enabled;
+    private final long refreshIntervalNanos;
+    private final Cache<SearchCacheKey, CachedPage> cache;
+    // Bumped by every invalidation, a search started under an older generation must not be cached
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long lastInvalidationNanos;
+
+    public SearchResultCache(CacheProperties cacheProperties) {
+        CacheProperties.SearchCacheConfig config = cacheProperties.getSearch();
+        this.enabled = config.isEnabled();
+        this.refreshIntervalNanos = config.getRefreshInterval().toNanos();
+        this.lastInvalidationNanos = System.nanoTime() - refreshIntervalNanos;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxEntries())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        log.info("Search result cache enabled: {}, ttl: {}, max entries: {}", enabled, config.getTtl(), config.getMaxEntries());
+    }
+
+    public CachedPage get(SearchCacheKey key) {
+        return enabled ? cache.getIfPresent(key) : null;
+    }
+
+    /**
+     * To be read before running the search whose result is later passed to {@link #put}. Within a refresh
+     * interval of the last invalidation the search may not see the write yet, its page is then not cached.
+     */
+    public long generation() {
+        long current = generation.get();
+        return System.nanoTime() - lastInvalidationNanos < refreshIntervalNanos ? UNCACHEABLE : current;
+    }
+
+    /**
+     * Caches the page unless an invalidation happened since {@code searchGeneration} was read,
+     * in which case the page may predate a write and is dropped.
+     */
+    public void put(SearchCacheKey key, long searchGeneration, List<ModelResponse> content, long totalCount, Map<String, List<FacetBucket>> facets) {
+        if (!enabled || generation.get() != searchGeneration) {
+            return;
+        }
+        CachedPage page = new CachedPage(List.copyOf(content), totalCount, facets);
+        cache.put(key, page);
+        // An invalidation between the check and the put bumps the generation before clearing, so re-check
+        if (generation.get() != searchGeneration) {
+            cache.asMap().remove(key, page);
+        }
+    }
+
+    public void invalidateAll() {
+        lastInvalidationNanos = System.nanoTime();
+        generation.incrementAndGet();
+        cache.invalidateAll();
+        log.debug("Search result cache cleared");
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    public record CachedPage(List<ModelResponse> content, long totalCount, Map<String, List<FacetBucket>> facets) {
+    }
+}
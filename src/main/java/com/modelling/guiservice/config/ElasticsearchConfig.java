@@ -1,18 +1,28 @@
 package com.modelling.guiservice.config;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.ElasticsearchTransport;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
 import com.modelling.guiservice.config.properties.ElasticsearchProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpHost;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.elasticsearch.client.NodeSelector;
 import org.elasticsearch.client.RestClient;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.core.env.Environment;
 
 import java.io.IOException;
 import java.io.StringReader;
@@ -22,16 +32,57 @@ import java.io.StringReader;
 @Slf4j
 public class ElasticsearchConfig {
     private final ElasticsearchProperties properties;
+    private final Environment environment;
 
-    @Bean
-    public ElasticsearchClient elasticsearchClient() {
-        RestClient restClient = RestClient.builder(
-                        new HttpHost(properties.getHost(), properties.getPort(), "http"))
+    // Shut down together with the RestClient that owns it
+    @Bean(destroyMethod = "")
+    public PoolingNHttpClientConnectionManager elasticsearchConnectionManager() throws IOReactorException {
+        IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                .setSoTimeout((int) properties.getSocketTimeout().toMillis())
+                .setSoKeepAlive(true)
                 .build();
+        PoolingNHttpClientConnectionManager connectionManager =
+                new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig));
+        connectionManager.setDefaultMaxPerRoute(properties.getPool().getMaxConnectionsPerRoute());
+        connectionManager.setMaxTotal(properties.getPool().getMaxConnectionsTotal());
+        return connectionManager;
+    }
 
+    @Bean(destroyMethod = "close")
+    public RestClient restClient(PoolingNHttpClientConnectionManager connectionManager) {
+        long keepAlive = properties.getPool().getKeepAlive().toMillis();
+        return RestClient.builder(nodes())
+                .setNodeSelector(properties.getNodeSelector() == ElasticsearchProperties.NodeSelection.ANY
+                        ? NodeSelector.ANY
+                        : NodeSelector.SKIP_DEDICATED_MASTERS)
+                .setCompressionEnabled(properties.isCompression())
+                .setRequestConfigCallback(requestConfig -> requestConfig
+                        .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                        .setSocketTimeout((int) properties.getSocketTimeout().toMillis())
+                        .setConnectionRequestTimeout((int) properties.getPool().getAcquireTimeout().toMillis()))
+                .setHttpClientConfigCallback(httpClient -> httpClient
+                        .setConnectionManager(connectionManager)
+                        .setKeepAliveStrategy((response, context) -> {
+                            long advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                            return advertised < 0 ? keepAlive : Math.min(advertised, keepAlive);
+                        }))
+                .build();
+    }
 
-        RestClientTransport transport = new RestClientTransport(
-                restClient, new JacksonJsonpMapper());
+    private HttpHost[] nodes() {
+        if (properties.getNodes().isEmpty()) {
+            return new HttpHost[]{new HttpHost(properties.getHost(), properties.getPort(), "http")};
+        }
+        return properties.getNodes().stream().map(HttpHost::create).toArray(HttpHost[]::new);
+    }
+
+    @Bean
+    public ElasticsearchClient elasticsearchClient(RestClient restClient) {
+        // With virtual threads blocking calls must not wait inside the low level client's synchronized Future
+        ElasticsearchTransport transport = Threading.VIRTUAL.isActive(environment)
+                ? new VirtualThreadTransport(restClient, new JacksonJsonpMapper())
+                : new RestClientTransport(restClient, new JacksonJsonpMapper());
 
         ElasticsearchClient client = new ElasticsearchClient(transport);
 
@@ -40,6 +91,12 @@ public class ElasticsearchConfig {
         return client;
     }
 
+    // Shares the transport, and so the connection pool, of the blocking client
+    @Bean
+    public ElasticsearchAsyncClient elasticsearchAsyncClient(ElasticsearchClient client) {
+        return new ElasticsearchAsyncClient(client._transport());
+    }
+
     @Bean(name = {"elasticsearchOperation","elasticsearchTemplate"})
     public ElasticsearchOperations elasticsearchOperations(
             ElasticsearchClient client
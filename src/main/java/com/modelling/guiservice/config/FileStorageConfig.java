@@ -5,14 +5,17 @@ import com.modelling.guiservice.service.FileStorageService;
 import com.modelling.guiservice.service.impl.LocalFileStorageService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 @Configuration
 @RequiredArgsConstructor
 public class FileStorageConfig {
 
     private final StorageConfig storageConfig;
+    private final Environment environment;
 
 //    @Bean
 //    @ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
@@ -31,7 +34,11 @@ public class FileStorageConfig {
     public FileStorageService localFileStorageService() {
         return new LocalFileStorageService(
                 storageConfig.getLocal().getPath(),
-                storageConfig.getLocal().getBaseUrl()
+                storageConfig.getLocal().getBaseUrl(),
+                storageConfig.getLocal().getUploadThreads(),
+                storageConfig.getLocal().isContentAddressed(),
+                // Only true on Java 21+, whatever spring.threads.virtual.enabled says
+                Threading.VIRTUAL.isActive(environment)
         );
     }
 }
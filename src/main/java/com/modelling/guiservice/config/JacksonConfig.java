@@ -0,0 +1,19 @@
+package com.modelling.guiservice.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Beans annotated with {@code @JsonFilter} serialize all their properties unless a request
+     * registers the filter explicitly (see field projection in ModelController).
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer jsonFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+}
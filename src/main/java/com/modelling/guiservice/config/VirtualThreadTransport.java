@@ -0,0 +1,61 @@
+package com.modelling.guiservice.config;
+
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.transport.ElasticsearchTransportBase;
+import co.elastic.clients.transport.TransportOptions;
+import co.elastic.clients.transport.http.TransportHttpClient;
+import co.elastic.clients.transport.rest_client.RestClientHttpClient;
+import org.elasticsearch.client.RestClient;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Transport for running blocking client calls on virtual threads. The low level client's synchronous
+ * path waits in a synchronized Future, which pins the carrier thread for the whole round trip; here a
+ * blocking call parks on the asynchronous path's CompletableFuture instead, which unmounts.
+ */
+public class VirtualThreadTransport extends ElasticsearchTransportBase {
+
+    public VirtualThreadTransport(RestClient restClient, JsonpMapper jsonpMapper) {
+        super(new ParkingHttpClient(new RestClientHttpClient(restClient)), null, jsonpMapper);
+    }
+
+    private static class ParkingHttpClient implements TransportHttpClient {
+        private final RestClientHttpClient delegate;
+
+        ParkingHttpClient(RestClientHttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public TransportOptions createOptions(TransportOptions options) {
+            return delegate.createOptions(options);
+        }
+
+        @Override
+        public Response performRequest(String endpointId, Node node, Request request, TransportOptions options) throws IOException {
+            try {
+                return performRequestAsync(endpointId, node, request, options).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException ioException) {
+                    throw ioException;
+                } else if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+
+        @Override
+        public CompletableFuture<Response> performRequestAsync(String endpointId, Node node, Request request, TransportOptions options) {
+            return delegate.performRequestAsync(endpointId, node, request, options);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.modelling.guiservice.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.bulk-import")
+@Getter
+@Setter
+public class BulkImportProperties {
+    // A bulk request is sent when either limit is reached
+    private int maxOperations = 1000;
+    private long maxSizeBytes = 5 * 1024 * 1024;
+    private int maxConcurrentRequests = 2;
+    private Duration flushInterval = Duration.ofSeconds(1);
+    // Refresh interval applied to the index while an import runs, "-1" disables refresh
+    private String refreshIntervalDuringLoad = "-1";
+    // Applied when the last running import finishes, unset restores the index default
+    private String refreshIntervalAfterLoad;
+}
@@ -0,0 +1,38 @@
+package com.modelling.guiservice.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+@Getter
+@Setter
+public class CacheProperties {
+    private SearchCacheConfig search = new SearchCacheConfig();
+    private ProfileCacheConfig profile = new ProfileCacheConfig();
+
+    @Getter
+    @Setter
+    public static class SearchCacheConfig {
+        private boolean enabled = true;
+        private Duration ttl = Duration.ofSeconds(30);
+        private long maxEntries = 1000;
+        // Writes become searchable with the next refresh, searches started this soon after one are not cached
+        private Duration refreshInterval = Duration.ofSeconds(1);
+    }
+
+    @Getter
+    @Setter
+    public static class ProfileCacheConfig {
+        private boolean enabled = true;
+        // Safety net for invalidations missed by other instances
+        private Duration ttl = Duration.ofMinutes(10);
+        // Bound on the estimated heap size of the cached profiles
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+    }
+}
@@ -2,12 +2,83 @@ package com.modelling.guiservice.config.properties;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "elasticsearch")
 public class ElasticsearchProperties {
     private String host;
     private int port;
+    // Cluster nodes as scheme://host:port; when empty the single host and port above are used
+    private List<String> nodes = new ArrayList<>();
+    private NodeSelection nodeSelector = NodeSelection.SKIP_DEDICATED_MASTERS;
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    // Longest wait for data on an open connection; must outlast the slowest search or bulk request
+    private Duration socketTimeout = Duration.ofSeconds(30);
+    // Gzips request bodies and asks for gzipped responses
+    private boolean compression = true;
+    private Pool pool = new Pool();
+    // Default for profile creation, a request can override it with ?refresh=
+    private RefreshMode createRefreshPolicy = RefreshMode.NONE;
+    private Search search = new Search();
+
+    public enum NodeSelection {
+        ANY,
+        // Keeps requests off nodes that only hold the master role
+        SKIP_DEDICATED_MASTERS
+    }
+
+    public enum RefreshMode {
+        // Returns as soon as the document is indexed, it becomes searchable with the next refresh
+        NONE(RefreshPolicy.NONE),
+        // Waits for the next scheduled refresh, the document is searchable on return
+        WAIT_FOR(RefreshPolicy.WAIT_UNTIL),
+        // Forces a refresh, searchable on return at the cost of a small segment per write
+        IMMEDIATE(RefreshPolicy.IMMEDIATE);
+
+        private final RefreshPolicy policy;
+
+        RefreshMode(RefreshPolicy policy) {
+            this.policy = policy;
+        }
+
+        public RefreshPolicy getPolicy() {
+            return policy;
+        }
+
+        public static RefreshMode fromValue(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    @Data
+    public static class Pool {
+        private int maxConnectionsPerRoute = 50;
+        private int maxConnectionsTotal = 200;
+        // How long a request may queue for a free connection before it fails
+        private Duration acquireTimeout = Duration.ofSeconds(5);
+        // Idle connections are reused up to this age, or less when the server says so
+        private Duration keepAlive = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Search {
+        // How long an idle point-in-time stays open between two cursor requests
+        private String pitKeepAlive = "1m";
+        // Must match index.max_result_window, from+size is used up to this offset
+        private int maxResultWindow = 10000;
+        // Hits are counted exactly up to this value, above it the total is a lower bound
+        private int trackTotalHitsUpTo = 10000;
+        // Hits fetched per search_after request when exporting
+        private int exportBatchSize = 1000;
+        // Distinct filter/global search combinations whose compiled query is kept
+        private int compiledQueryCacheSize = 1000;
+    }
 }
@@ -0,0 +1,20 @@
+package com.modelling.guiservice.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.images.serving")
+@Getter
+@Setter
+public class ImageServingProperties {
+    // Stored file names are unique, so their content never changes
+    private Duration maxAge = Duration.ofDays(365);
+    // Full bodies from this size on are handed to the container's sendfile
+    private DataSize sendfileThreshold = DataSize.ofKilobytes(48);
+}
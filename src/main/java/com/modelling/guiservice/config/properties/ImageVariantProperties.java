@@ -0,0 +1,29 @@
+package com.modelling.guiservice.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.images.variants")
+@Getter
+@Setter
+public class ImageVariantProperties {
+    private boolean enabled = true;
+    private int threads = 2;
+    private int queueCapacity = 500;
+    // JPEG quality between 0 and 1
+    private float quality = 0.8f;
+    // Variant name to the maximum width/height in pixels
+    private Map<String, Integer> sizes = new LinkedHashMap<>();
+
+    public ImageVariantProperties() {
+        sizes.put("thumb", 240);
+        sizes.put("medium", 720);
+        sizes.put("large", 1440);
+    }
+}
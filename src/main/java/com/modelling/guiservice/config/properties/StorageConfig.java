@@ -19,6 +19,11 @@ public class StorageConfig {
     public static class LocalStorageConfig {
         private String path;
         private String baseUrl;
+        private int uploadThreads = 8;
+        // Store identical uploads once, named by their SHA-256 and reference counted
+        private boolean contentAddressed = false;
+        // Parallelism of the flat-to-sharded directory migration
+        private int reshardThreads = 4;
     }
 
     @Getter
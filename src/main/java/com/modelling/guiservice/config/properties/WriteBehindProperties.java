@@ -0,0 +1,30 @@
+package com.modelling.guiservice.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.write-behind")
+@Getter
+@Setter
+public class WriteBehindProperties {
+    // Single creates and updates are queued and answered with 202 instead of being indexed in the request
+    private boolean enabled = false;
+    // Writes accepted but not yet handed to the bulk ingester; beyond this callers are turned away
+    private int queueCapacity = 10000;
+    // How long a write waits for queue space before it is rejected with 503
+    private Duration offerTimeout = Duration.ofMillis(100);
+    // A bulk request is sent when either limit is reached or the flush interval passes
+    private int maxOperations = 500;
+    private long maxSizeBytes = 5 * 1024 * 1024;
+    private Duration flushInterval = Duration.ofMillis(200);
+    // One request in flight keeps writes to the same profile in submission order
+    private int maxConcurrentRequests = 1;
+    // How long the outcome of a write can be looked up by its tracking id
+    private Duration statusRetention = Duration.ofMinutes(10);
+    private int maxTrackedWrites = 100000;
+}
@@ -0,0 +1,111 @@
+package com.modelling.guiservice.controller;
+
+import com.modelling.guiservice.cache.ProfileCache;
+import com.modelling.guiservice.cache.SearchResultCache;
+import com.modelling.guiservice.config.properties.StorageConfig;
+import com.modelling.guiservice.dto.response.IndexMigrationResponse;
+import com.modelling.guiservice.service.FileStorageService;
+import com.modelling.guiservice.service.ImageDerivativeService;
+import com.modelling.guiservice.service.IndexMigrationService;
+import com.modelling.guiservice.service.WriteBehindIndexer;
+import com.modelling.guiservice.service.impl.LocalFileStorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+    private final SearchResultCache searchResultCache;
+    private final ProfileCache profileCache;
+    private final FileStorageService fileStorageService;
+    private final StorageConfig storageConfig;
+    private final IndexMigrationService indexMigrationService;
+    private final PoolingNHttpClientConnectionManager elasticsearchConnectionManager;
+    private final WriteBehindIndexer writeBehindIndexer;
+    private final ImageDerivativeService imageDerivativeService;
+
+    @GetMapping("/cache/search/stats")
+    public ResponseEntity<Map<String, Object>> getSearchCacheStats() {
+        return ResponseEntity.ok(searchResultCache.stats());
+    }
+
+    @DeleteMapping("/cache/search")
+    public ResponseEntity<Void> clearSearchCache() {
+        log.info("Received request to clear search result cache");
+        searchResultCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/cache/profile/stats")
+    public ResponseEntity<Map<String, Object>> getProfileCacheStats() {
+        return ResponseEntity.ok(profileCache.stats());
+    }
+
+    @DeleteMapping("/cache/profile")
+    public ResponseEntity<Void> clearProfileCache() {
+        log.info("Received request to clear profile cache");
+        profileCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    // Pending requests are waiting for a connection: the pool is saturated
+    @GetMapping("/elasticsearch/pool/stats")
+    public ResponseEntity<Map<String, Object>> getElasticsearchPoolStats() {
+        PoolStats total = elasticsearchConnectionManager.getTotalStats();
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (HttpRoute route : elasticsearchConnectionManager.getRoutes()) {
+            routes.put(route.getTargetHost().toURI(), poolStats(elasticsearchConnectionManager.getStats(route)));
+        }
+        Map<String, Object> stats = new LinkedHashMap<>(poolStats(total));
+        stats.put("saturated", total.getPending() > 0);
+        stats.put("routes", routes);
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/write-behind/stats")
+    public ResponseEntity<Map<String, Object>> getWriteBehindStats() {
+        return ResponseEntity.ok(writeBehindIndexer.stats());
+    }
+
+    @GetMapping("/images/variants/stats")
+    public ResponseEntity<Map<String, Object>> getImageVariantStats() {
+        return ResponseEntity.ok(imageDerivativeService.stats());
+    }
+
+    @PostMapping("/storage/reshard")
+    public ResponseEntity<?> reshardLocalStorage() throws IOException {
+        if (!(fileStorageService instanceof LocalFileStorageService localStorage)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Active storage is not local"));
+        }
+        log.info("Received request to reshard local storage");
+        return ResponseEntity.ok(localStorage.reshard(storageConfig.getLocal().getReshardThreads()));
+    }
+
+    @PostMapping("/index/model-profiles/migrate")
+    public ResponseEntity<IndexMigrationResponse> migrateModelProfilesIndex() {
+        log.info("Received request to migrate the model profiles index");
+        return ResponseEntity.ok(indexMigrationService.migrateModelProfiles());
+    }
+
+    private Map<String, Object> poolStats(PoolStats stats) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("leased", stats.getLeased());
+        values.put("pending", stats.getPending());
+        values.put("available", stats.getAvailable());
+        values.put("max", stats.getMax());
+        return values;
+    }
+}
@@ -0,0 +1,92 @@
+package com.modelling.guiservice.controller;
+
+import com.modelling.guiservice.config.properties.ImageServingProperties;
+import com.modelling.guiservice.service.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+
+/**
+ * Serves uploaded images. Conditional and range requests are answered by Spring from the
+ * ETag and the resource, large full bodies go out through Tomcat's sendfile.
+ * Mapped under the local storage base URL, so the URLs stored on profiles resolve here.
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class ImageController {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final FileStorageService fileStorageService;
+    private final ImageServingProperties imageServingProperties;
+
+    @GetMapping("${app.storage.local.base-url:/uploads}/{fileName}")
+    public ResponseEntity<Resource> getImage(@PathVariable String fileName,
+                                             HttpServletRequest request,
+                                             HttpServletResponse response) throws IOException {
+        Resource resource;
+        try {
+            resource = fileStorageService.loadAsResource(fileName);
+        } catch (FileNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long length = resource.contentLength();
+        long lastModified = resource.lastModified();
+        // Published files are only ever replaced by an atomic rename, size and mtime identify the content
+        String eTag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return null;
+        }
+
+        MediaType mediaType = MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag);
+        headers.setLastModified(lastModified);
+        headers.setCacheControl(CacheControl.maxAge(imageServingProperties.getMaxAge()).cachePublic().immutable());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (isSendfileCandidate(request, length) && resource.isFile()) {
+            File file = resource.getFile();
+            // set rather than add, checkNotModified has already written ETag and Last-Modified
+            headers.toSingleValueMap().forEach(response::setHeader);
+            response.setContentType(mediaType.toString());
+            response.setContentLengthLong(length);
+            request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(mediaType)
+                .body(resource);
+    }
+
+    private boolean isSendfileCandidate(HttpServletRequest request, long length) {
+        return "GET".equals(request.getMethod())
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && length >= imageServingProperties.getSendfileThreshold().toBytes()
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+    }
+}
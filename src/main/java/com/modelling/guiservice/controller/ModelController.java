@@ -1,21 +1,44 @@
 package com.modelling.guiservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.modelling.guiservice.config.properties.ElasticsearchProperties;
 import com.modelling.guiservice.dto.helper.HelperPage;
+import com.modelling.guiservice.dto.request.BatchGetRequest;
+import com.modelling.guiservice.dto.request.ExportRequest;
+import com.modelling.guiservice.dto.request.ModelPatchRequest;
 import com.modelling.guiservice.dto.request.ModelRequest;
 import com.modelling.guiservice.dto.request.ViewRequest;
+import com.modelling.guiservice.dto.response.BulkImportResponse;
 import com.modelling.guiservice.dto.response.ModelResponse;
+import com.modelling.guiservice.dto.response.WriteStatusResponse;
+import com.modelling.guiservice.service.BulkImportService;
+import com.modelling.guiservice.service.ExportService;
 import com.modelling.guiservice.service.ModelService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 
 @RestController
@@ -24,11 +47,78 @@ import java.util.Map;
 @Slf4j
 public class ModelController {
     private final ModelService modelService;
+    private final BulkImportService bulkImportService;
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/create")
-    public ResponseEntity<?> createModel(@Valid @ModelAttribute ModelRequest request, BindingResult bindingResult) {
+    public ResponseEntity<?> createModel(@Valid @ModelAttribute ModelRequest request, BindingResult bindingResult,
+                                         @RequestParam(required = false) String refresh) {
         log.info("Received request to create new model");
 
+        Map<String, String> errors = new HashMap<>();
+        bindingResult.getAllErrors().forEach(error -> {
+            if (error instanceof FieldError) {
+                errors.put(((FieldError) error).getField(), error.getDefaultMessage());
+            } else {
+                errors.put(error.getObjectName(), error.getDefaultMessage());
+            }
+        });
+        ElasticsearchProperties.RefreshMode refreshMode = null;
+        if (refresh != null) {
+            try {
+                refreshMode = ElasticsearchProperties.RefreshMode.fromValue(refresh);
+            } catch (IllegalArgumentException e) {
+                errors.put("refresh", "refresh must be one of none, wait_for, immediate");
+            }
+        }
+        if (!errors.isEmpty()) {
+            return ResponseEntity.badRequest().body(errors);
+        }
+
+        // Asking for a refresh means the caller wants to read its write, which the queue cannot promise
+        if (modelService.isWriteBehindEnabled() && refreshMode == null) {
+            return accepted(modelService.createModelQueued(request));
+        }
+        ModelResponse response = modelService.createModel(request, refreshMode);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BulkImportResponse> importModels(@RequestParam("metadata") MultipartFile metadata,
+                                                           @RequestParam(value = "images", required = false) MultipartFile images) {
+        log.info("Received request to import models from {}", metadata.getOriginalFilename());
+        BulkImportResponse response = bulkImportService.importModels(metadata, images);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportModels(
+            @RequestBody(required = false) ExportRequest request,
+            @RequestParam(defaultValue = "NDJSON") ExportService.ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) throws Exception {
+        log.info("Received request to export models as {} with parameters {}", format, request);
+
+        StreamingResponseBody response = exportService.exportModels(request != null ? request : new ExportRequest(), format, gzip);
+        String fileName = "model_profiles" + (format == ExportService.ExportFormat.CSV ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : format == ExportService.ExportFormat.CSV ? MediaType.parseMediaType("text/csv") : MediaType.parseMediaType("application/x-ndjson");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .contentType(contentType)
+                .body(response);
+    }
+
+    @GetMapping("/view/{id}")
+    public CompletableFuture<ResponseEntity<MappingJacksonValue>> getModelById(@PathVariable String id,
+                                                                               @RequestParam(required = false) List<String> fields) {
+        log.info("Received request to get model with ID: {}", id);
+        return modelService.getModelByIdAsync(id, fields)
+                .thenApply(response -> ResponseEntity.ok(projectFields(response, fields)));
+    }
+
+    @PostMapping("/viewBatch")
+    public CompletableFuture<ResponseEntity<?>> getModelsByIds(@Valid @RequestBody BatchGetRequest request, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
             Map<String, String> errors = new HashMap<>();
             bindingResult.getAllErrors().forEach(error -> {
@@ -38,22 +128,16 @@ public class ModelController {
                     errors.put(error.getObjectName(), error.getDefaultMessage());
                 }
             });
-            return ResponseEntity.badRequest().body(errors);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(errors));
         }
 
-        ModelResponse response = modelService.createModel(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
-    }
-
-    @GetMapping("/view/{id}")
-    public ResponseEntity<ModelResponse> getModelById(@PathVariable String id) {
-        log.info("Received request to get model with ID: {}", id);
-        ModelResponse response = modelService.getModelById(id);
-        return ResponseEntity.ok(response);
+        log.info("Received request to get {} models by ID", request.getIds().size());
+        return modelService.getModelsByIdsAsync(request.getIds(), request.getFields())
+                .thenApply(response -> ResponseEntity.ok(projectFields(response, request.getFields())));
     }
 
     @PostMapping("/viewAll")
-    public ResponseEntity<?> searchModels(@Valid @RequestBody ViewRequest viewRequest, BindingResult bindingResult) throws Exception {
+    public CompletableFuture<ResponseEntity<?>> searchModels(@Valid @RequestBody ViewRequest viewRequest, BindingResult bindingResult) {
 
         log.info("Received search request with parameters {}", viewRequest);
 
@@ -66,17 +150,44 @@ public class ModelController {
                     errors.put(error.getObjectName(), error.getDefaultMessage());
                 }
             });
-            return ResponseEntity.badRequest().body(errors);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(errors));
         }
 
-        HelperPage<ModelResponse> response = modelService.searchModels(viewRequest);
-        response.setMessage("Models retrieved successfully");
+        // The servlet thread is released until Elasticsearch answers
+        return modelService.searchModelsAsync(viewRequest)
+                .thenApply(response -> {
+                    response.setMessage("Models retrieved successfully");
+                    return ResponseEntity.ok(projectFields(response, viewRequest.getFields()));
+                });
+    }
 
-        return ResponseEntity.ok(response);
+    @PostMapping(value = "/viewAll", params = "mode=stream")
+    public ResponseEntity<StreamingResponseBody> streamModels(@Valid @RequestBody ViewRequest viewRequest, BindingResult bindingResult) throws Exception {
+
+        log.info("Received pass-through search request with parameters {}", viewRequest);
+
+        if (bindingResult.hasErrors()) {
+            Map<String, String> errors = new HashMap<>();
+            bindingResult.getAllErrors().forEach(error -> {
+                if (error instanceof FieldError) {
+                    errors.put(((FieldError) error).getField(), error.getDefaultMessage());
+                } else {
+                    errors.put(error.getObjectName(), error.getDefaultMessage());
+                }
+            });
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(outputStream -> objectMapper.writeValue(outputStream, errors));
+        }
+
+        StreamingResponseBody response = modelService.streamSearchModels(viewRequest, "Models retrieved successfully");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response);
     }
 
     @PostMapping("/update/{id}")
-    public ResponseEntity<?> updateModel(
+    public CompletableFuture<ResponseEntity<?>> updateModel(
             @PathVariable String id,
             @Valid @RequestBody ModelRequest request, BindingResult bindingResult) {
 
@@ -89,18 +200,78 @@ public class ModelController {
                     errors.put(error.getObjectName(), error.getDefaultMessage());
                 }
             });
-            return ResponseEntity.badRequest().body(errors);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(errors));
         }
 
         log.info("Received request to update model with ID: {}", id);
-        ModelResponse response = modelService.updateModel(id, request);
-        return ResponseEntity.ok(response);
+        if (modelService.isWriteBehindEnabled()) {
+            return CompletableFuture.completedFuture(accepted(modelService.updateModelQueued(id, request)));
+        }
+        return modelService.updateModelAsync(id, request)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @PatchMapping("/update/{id}")
+    public CompletableFuture<ResponseEntity<?>> patchModel(
+            @PathVariable String id,
+            @RequestParam(name = "if_seq_no", required = false) Long ifSeqNo,
+            @RequestParam(name = "if_primary_term", required = false) Long ifPrimaryTerm,
+            @Valid @RequestBody ModelPatchRequest request, BindingResult bindingResult) {
+
+        Map<String, String> errors = new HashMap<>();
+        bindingResult.getAllErrors().forEach(error -> {
+            if (error instanceof FieldError) {
+                errors.put(((FieldError) error).getField(), error.getDefaultMessage());
+            } else {
+                errors.put(error.getObjectName(), error.getDefaultMessage());
+            }
+        });
+        // Without the version the caller read, a concurrent edit would be overwritten silently
+        if (ifSeqNo == null || ifPrimaryTerm == null) {
+            errors.put("if_seq_no", "if_seq_no and if_primary_term from the last read are required");
+        }
+        if (!errors.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(errors));
+        }
+
+        log.info("Received request to patch model with ID: {}", id);
+        return modelService.patchModelAsync(id, request, ifSeqNo, ifPrimaryTerm)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/writes/{trackingId}")
+    public ResponseEntity<WriteStatusResponse> getWriteStatus(@PathVariable String trackingId) {
+        return ResponseEntity.ok(modelService.getWriteStatus(trackingId));
     }
 
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<Void> deleteModel(@PathVariable String id) {
+    public CompletableFuture<ResponseEntity<Void>> deleteModel(@PathVariable String id) {
         log.info("Received request to delete model with ID: {}", id);
-        modelService.deleteModel(id);
-        return ResponseEntity.noContent().build();
+        return modelService.deleteModelAsync(id)
+                .thenApply(ignored -> ResponseEntity.noContent().build());
+    }
+
+    private ResponseEntity<WriteStatusResponse> accepted(WriteStatusResponse status) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/v1/models/writes/{trackingId}")
+                        .buildAndExpand(status.getTrackingId())
+                        .toUri())
+                .body(status);
+    }
+
+    /**
+     * Restricts the rendered ModelResponse properties to the requested top level fields ("images.url" keeps "images").
+     */
+    private MappingJacksonValue projectFields(Object body, List<String> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields != null && !fields.isEmpty()) {
+            Set<String> properties = fields.stream()
+                    .map(field -> StringUtils.substringBefore(field.trim(), "."))
+                    .collect(Collectors.toSet());
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(ModelResponse.FIELD_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(properties)));
+        }
+        return value;
     }
 }
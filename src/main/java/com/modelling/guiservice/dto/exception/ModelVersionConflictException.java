@@ -0,0 +1,16 @@
+package com.modelling.guiservice.dto.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ModelVersionConflictException extends RuntimeException {
+    private final String modelId;
+
+    public ModelVersionConflictException(String modelId) {
+        super(String.format("Model with ID %s was changed by another request, reload it and retry", modelId));
+        this.modelId = modelId;
+    }
+}
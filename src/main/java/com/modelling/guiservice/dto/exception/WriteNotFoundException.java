@@ -0,0 +1,16 @@
+package com.modelling.guiservice.dto.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class WriteNotFoundException extends RuntimeException {
+    private final String trackingId;
+
+    public WriteNotFoundException(String trackingId) {
+        super(String.format("No queued write with tracking ID %s, it is unknown or its status has expired", trackingId));
+        this.trackingId = trackingId;
+    }
+}
@@ -0,0 +1,12 @@
+package com.modelling.guiservice.dto.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WriteQueueFullException extends RuntimeException {
+
+    public WriteQueueFullException(int capacity) {
+        super(String.format("Write queue is full (%d pending writes), retry shortly", capacity));
+    }
+}
@@ -1,15 +1,21 @@
 package com.modelling.guiservice.dto.helper;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class ElasticSearchResult<T> {
     private List<T> results;
     private long totalCount;
+    private String nextCursor;
+    private String prevCursor;
+    private Map<String, List<FacetBucket>> facets;
 
     public ElasticSearchResult(List<T> results, long totalCount) {
         this.results = results;
@@ -0,0 +1,16 @@
+package com.modelling.guiservice.dto.helper;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetBucket {
+    private String key;
+    // Set for range buckets only, "from" inclusive and "to" exclusive
+    private Double from;
+    private Double to;
+    private long count;
+}
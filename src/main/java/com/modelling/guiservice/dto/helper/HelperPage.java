@@ -9,11 +9,15 @@ import org.springframework.data.domain.Pageable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class HelperPage<T> extends PageImpl<T> {
 
     public String status;
     public String message;
+    public String nextCursor;
+    public String prevCursor;
+    public Map<String, List<FacetBucket>> facets;
 
     public HelperPage() {
         super(new ArrayList<>());
@@ -56,6 +60,30 @@ public class HelperPage<T> extends PageImpl<T> {
         this.message = message;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+
+    public void setPrevCursor(String prevCursor) {
+        this.prevCursor = prevCursor;
+    }
+
+    public Map<String, List<FacetBucket>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, List<FacetBucket>> facets) {
+        this.facets = facets;
+    }
+
     @Override
     public String toString() {
         return "HelperPage{" +
@@ -64,6 +92,9 @@ public class HelperPage<T> extends PageImpl<T> {
                 ", content=" + getContent() +
                 ", pageable=" + getPageable() +
                 ", total=" + getTotalElements() +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", prevCursor='" + prevCursor + '\'' +
+                ", facets=" + facets +
                 '}';
     }
 
@@ -0,0 +1,16 @@
+package com.modelling.guiservice.dto.helper;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One slot of a multi-get: the document when found, the shard level error when the lookup failed,
+ * neither when the id does not exist.
+ */
+@Getter
+@AllArgsConstructor
+public class MultiGetResult<T> {
+    private final String id;
+    private final VersionedDocument<T> document;
+    private final String error;
+}
@@ -0,0 +1,18 @@
+package com.modelling.guiservice.dto.helper;
+
+import com.modelling.guiservice.dto.response.WriteStatusResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A write accepted by the write-behind indexer. The future completes once its bulk request was acknowledged,
+ * exceptionally when Elasticsearch rejected the operation.
+ */
+@Getter
+@AllArgsConstructor
+public class QueuedWrite {
+    private final WriteStatusResponse status;
+    private final CompletableFuture<Void> indexed;
+}
@@ -0,0 +1,22 @@
+package com.modelling.guiservice.dto.helper;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * State carried by the opaque cursor token handed out in {@link HelperPage}.
+ * Holds the point-in-time id, the sort values of the boundary hit and the direction to page in,
+ * plus a fingerprint of the query, sort and page size it was issued for.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchCursor {
+    private String pitId;
+    private List<Object> searchAfter;
+    private boolean reverse;
+    private String fingerprint;
+}
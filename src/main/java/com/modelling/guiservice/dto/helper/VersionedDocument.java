@@ -0,0 +1,16 @@
+package com.modelling.guiservice.dto.helper;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A document with the sequence number and primary term it was read or written at,
+ * which a later conditional write passes back as if_seq_no/if_primary_term.
+ */
+@Getter
+@AllArgsConstructor
+public class VersionedDocument<T> {
+    private final T document;
+    private final long seqNo;
+    private final long primaryTerm;
+}
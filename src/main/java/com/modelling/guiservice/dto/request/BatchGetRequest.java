@@ -0,0 +1,18 @@
+package com.modelling.guiservice.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchGetRequest {
+    @NotEmpty(message = "At least one id is required")
+    @Size(max = 100, message = "At most 100 ids can be fetched at once")
+    private List<@NotBlank(message = "Ids must not be blank") String> ids;
+
+    // Same projection as GET /view/{id}, all fields when empty
+    private List<String> fields;
+}
@@ -0,0 +1,18 @@
+package com.modelling.guiservice.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ExportRequest {
+
+    Map<String, Object> fieldSearchMap;
+    String globalSearch;
+
+    // Optional projection, all fields when empty
+    List<String> fields;
+}
@@ -0,0 +1,18 @@
+package com.modelling.guiservice.dto.request;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+public class FacetRequest implements Serializable {
+    // Field to count by, e.g. "gender" or "height"
+    String field;
+
+    // Number of buckets for value counts, 10 when empty
+    Integer size;
+
+    // Band edges for numeric fields, e.g. [160, 170, 180] gives *-160, 160-170, 170-180, 180-*
+    List<Double> boundaries;
+}
@@ -0,0 +1,39 @@
+package com.modelling.guiservice.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.modelling.guiservice.model.enums.Gender;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One profile of a bulk import, read from an NDJSON line or a CSV row.
+ * Images are file names inside the uploaded image archive.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ModelImportRow {
+    @NotBlank(message = "Name is required")
+    private String name;
+
+    @NotNull(message = "Age is required")
+    private Integer age;
+
+    @NotNull(message = "Height is required")
+    private Double height;
+
+    @NotNull(message = "Gender is required")
+    private Gender gender;
+
+    private Double bust;
+    private Double waist;
+    private Double chest;
+    private Double lowerWaist;
+    private Double hips;
+    private Double shoeSize;
+    private String eyes;
+
+    private List<String> images;
+}
@@ -0,0 +1,36 @@
+package com.modelling.guiservice.dto.request;
+
+import com.modelling.guiservice.model.enums.Gender;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+/**
+ * Partial update of a profile: only the non-null fields are written.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ModelPatchRequest {
+    @Pattern(regexp = ".*\\S.*", message = "Name must not be blank")
+    private String name;
+
+    @Min(value = 16, message = "Model must be at least 16 years old")
+    @Max(value = 99, message = "Age must be less than 100")
+    private Integer age;
+
+    @DecimalMin(value = "100", message = "Height must be at least 100 cm")
+    @DecimalMax(value = "250", message = "Height must be less than 250 cm")
+    private Double height;
+
+    private Gender gender;
+    private Double bust;
+    private Double waist;
+    private Double chest;
+    private Double lowerWaist;
+    private Double hips;
+    private Double shoeSize;
+    private String eyes;
+    private Boolean isBooked;
+}
@@ -20,27 +20,27 @@ public class ModelRequest {
     @NotNull(message = "Age is required")
     @Min(value = 16, message = "Model must be at least 16 years old")
     @Max(value = 99, message = "Age must be less than 100")
-    private String age;
+    private Integer age;
 
     @NotNull(message = "Height is required")
     @DecimalMin(value = "100", message = "Height must be at least 100 cm")
     @DecimalMax(value = "250", message = "Height must be less than 250 cm")
-    private String height;
+    private Double height;
 
     @NotNull(message = "Gender is required")
     private Gender gender; // "MALE" or "FEMALE"
 
     // Female-specific
-    private String bust;
-    private String waist;
+    private Double bust;
+    private Double waist;
 
     // Male-specific
-    private String chest;
-    private String lowerWaist;
+    private Double chest;
+    private Double lowerWaist;
 
     // Common
-    private String hips;
-    private String shoeSize;
+    private Double hips;
+    private Double shoeSize;
     private String eyes;
 
     @NotNull(message = "At least one image is required")
@@ -6,6 +6,7 @@ import lombok.Data;
 import org.hibernate.validator.constraints.Range;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -27,6 +28,17 @@ public class ViewRequest implements Serializable, Cloneable {
 
     String sortOrder;
 
+    // Cursor pagination: set useCursor on the first request, then pass back nextCursor/prevCursor
+    Boolean useCursor;
+
+    String cursor;
+
+    // Optional projection, e.g. ["id", "name", "gender", "images.url"]. All fields when empty
+    List<String> fields;
+
+    // Optional bucket counts computed in the same search as the page, keyed by field in the response
+    List<FacetRequest> facets;
+
     public Object clone() throws CloneNotSupportedException {
         return super.clone();
     }
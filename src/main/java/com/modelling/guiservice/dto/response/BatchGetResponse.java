@@ -0,0 +1,32 @@
+package com.modelling.guiservice.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchGetResponse {
+    public static final String FOUND = "FOUND";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String FAILED = "FAILED";
+
+    private int requested;
+    private int found;
+    // One entry per requested id, in request order
+    private List<Item> items;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String id;
+        private String status;
+        private ModelResponse model;
+        private String error;
+    }
+}
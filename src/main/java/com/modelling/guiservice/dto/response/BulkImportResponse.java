@@ -0,0 +1,29 @@
+package com.modelling.guiservice.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkImportResponse {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private long tookMillis;
+    private List<RowResult> rows;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        private int row;
+        private String id;
+        private String status;
+        private String error;
+    }
+}
@@ -0,0 +1,21 @@
+package com.modelling.guiservice.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IndexMigrationResponse {
+    private String alias;
+    private String sourceIndex;
+    private String targetIndex;
+    private long migrated;
+    private long caughtUp;
+    private long removed;
+    private List<String> failures;
+    private long tookMillis;
+}
@@ -1,5 +1,7 @@
 package com.modelling.guiservice.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.modelling.guiservice.model.ModelImage;
 import com.modelling.guiservice.model.enums.Gender;
 import lombok.*;
@@ -12,21 +14,30 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonFilter(ModelResponse.FIELD_FILTER)
 public class ModelResponse {
+    // Filter id used to render only the requested fields, all fields are rendered when no filter is registered
+    public static final String FIELD_FILTER = "modelResponseFieldFilter";
+
     private String id;
     private String name;
-    private String age;
-    private String height;
+    private Integer age;
+    private Double height;
     private Gender gender;
-    private String bust;
-    private String chest;
-    private String waist;
-    private String lowerWaist;
-    private String hips;
-    private String shoeSize;
+    private Double bust;
+    private Double chest;
+    private Double waist;
+    private Double lowerWaist;
+    private Double hips;
+    private Double shoeSize;
     private String eyes;
     private Boolean isBooked;
     private List<ModelImage> images;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Version the document was read at, sent back as if_seq_no/if_primary_term when patching
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long seqNo;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long primaryTerm;
 }
@@ -0,0 +1,24 @@
+package com.modelling.guiservice.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class WriteStatusResponse {
+    public static final String QUEUED = "QUEUED";
+    public static final String INDEXED = "INDEXED";
+    public static final String FAILED = "FAILED";
+
+    private String trackingId;
+    private String modelId;
+    private String operation;
+    private String status;
+    private String error;
+    private LocalDateTime queuedAt;
+    private LocalDateTime completedAt;
+}
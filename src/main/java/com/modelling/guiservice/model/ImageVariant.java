@@ -0,0 +1,27 @@
+package com.modelling.guiservice.model;
+
+import lombok.*;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageVariant {
+    @Field(type = FieldType.Keyword, name = "name") // "thumb", "medium", "large"
+    private String name;
+
+    @Field(type = FieldType.Keyword, name = "url")
+    private String url;
+
+    @Field(type = FieldType.Integer, name = "width")
+    private Integer width;
+
+    @Field(type = FieldType.Integer, name = "height")
+    private Integer height;
+
+    @Field(type = FieldType.Long, name = "size") // in bytes
+    private Long size;
+}
@@ -4,6 +4,8 @@ import lombok.*;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
 
+import java.util.List;
+
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,4 +20,8 @@ public class ModelImage {
 
     @Field(type = FieldType.Integer, name = "order")
     private Integer order;
+
+    // Resized copies of the original, filled in asynchronously after the profile is created
+    @Field(type = FieldType.Object, name = "variants")
+    private List<ImageVariant> variants;
 }
@@ -3,9 +3,8 @@ package com.modelling.guiservice.model;
 import com.modelling.guiservice.model.enums.Gender;
 import lombok.*;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.elasticsearch.annotations.Document;
-import org.springframework.data.elasticsearch.annotations.Field;
-import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.elasticsearch.annotations.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,42 +15,50 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Document(indexName = "model_profiles")
+@Setting(settingPath = "/elasticsearch/model-profile-settings.json")
 public class ModelProfile {
+    // Target of copy_to for global search, n-gram analyzed so substrings are index lookups
+    public static final String SEARCH_TEXT = "searchText";
+
     @Id
     private String id;
 
-    @Field(type = FieldType.Keyword, name = "name")
+    @MultiField(mainField = @Field(type = FieldType.Keyword, name = "name", copyTo = ModelProfile.SEARCH_TEXT),
+            otherFields = @InnerField(suffix = "prefix", type = FieldType.Text, analyzer = "lowercase_keyword",
+                    indexPrefixes = @IndexPrefixes(minChars = 1, maxChars = 10)))
     private String name;
 
-    @Field(type = FieldType.Keyword, name = "age")
-    private String age;
+    @Field(type = FieldType.Integer, name = "age")
+    private Integer age;
 
-    @Field(type = FieldType.Keyword, name = "height")
-    private String height; // in cm
+    @Field(type = FieldType.Double, name = "height")
+    private Double height; // in cm
 
-    @Field(type = FieldType.Keyword, name = "gender")
+    @Field(type = FieldType.Keyword, name = "gender", copyTo = ModelProfile.SEARCH_TEXT)
     private Gender gender; // "MALE" or "FEMALE"
 
     // Measurements - different for male/female
-    @Field(type = FieldType.Keyword, name = "bust")
-    private String bust; // for female
+    @Field(type = FieldType.Double, name = "bust")
+    private Double bust; // for female
 
-    @Field(type = FieldType.Keyword, name = "chest")
-    private String chest; // for male
+    @Field(type = FieldType.Double, name = "chest")
+    private Double chest; // for male
 
-    @Field(type = FieldType.Keyword, name = "waist")
-    private String waist; // for female
+    @Field(type = FieldType.Double, name = "waist")
+    private Double waist; // for female
 
-    @Field(type = FieldType.Keyword, name = "lowerWaist")
-    private String lowerWaist; // for male
+    @Field(type = FieldType.Double, name = "lowerWaist")
+    private Double lowerWaist; // for male
 
-    @Field(type = FieldType.Keyword, name = "hips")
-    private String hips;
+    @Field(type = FieldType.Double, name = "hips")
+    private Double hips;
 
-    @Field(type = FieldType.Keyword, name = "shoeSize")
-    private String shoeSize;
+    @Field(type = FieldType.Double, name = "shoeSize")
+    private Double shoeSize;
 
-    @Field(type = FieldType.Keyword, name = "eyes")
+    @MultiField(mainField = @Field(type = FieldType.Keyword, name = "eyes", copyTo = ModelProfile.SEARCH_TEXT),
+            otherFields = @InnerField(suffix = "prefix", type = FieldType.Text, analyzer = "lowercase_keyword",
+                    indexPrefixes = @IndexPrefixes(minChars = 1, maxChars = 10)))
     private String eyes;
 
     @Field(type = FieldType.Boolean, name = "isBooked")
@@ -69,5 +76,9 @@ public class ModelProfile {
             format = {},
             pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime updatedAt;
-}
 
+    // Only filled by copy_to inside Elasticsearch, never part of _source
+    @ReadOnlyProperty
+    @Field(type = FieldType.Text, name = SEARCH_TEXT, analyzer = "global_ngram")
+    private String searchText;
+}
@@ -0,0 +1,9 @@
+package com.modelling.guiservice.service;
+
+import com.modelling.guiservice.dto.response.BulkImportResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface BulkImportService {
+
+    BulkImportResponse importModels(MultipartFile metadata, MultipartFile imageArchive);
+}
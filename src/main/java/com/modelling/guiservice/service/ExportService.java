@@ -0,0 +1,13 @@
+package com.modelling.guiservice.service;
+
+import com.modelling.guiservice.dto.request.ExportRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface ExportService {
+
+    StreamingResponseBody exportModels(ExportRequest request, ExportFormat format, boolean gzip) throws Exception;
+
+    enum ExportFormat {
+        NDJSON, CSV
+    }
+}
@@ -1,14 +1,26 @@
 package com.modelling.guiservice.service;
 
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 public interface FileStorageService {
     String uploadFile(MultipartFile file) throws IOException;
 
+    String uploadFile(InputStream inputStream, String originalFileName) throws IOException;
+
     List<String> uploadFiles(List<MultipartFile> files) throws IOException;
 
+    /**
+     * Takes another reference on a stored file. The returned URL stays valid until it is deleted itself,
+     * whatever happens to {@code fileUrl}.
+     */
+    String copyFile(String fileUrl) throws IOException;
+
     void deleteFile(String fileUrl) throws IOException;
+
+    Resource loadAsResource(String fileUrl) throws IOException;
 }
@@ -0,0 +1,24 @@
+package com.modelling.guiservice.service;
+
+import com.modelling.guiservice.model.ImageVariant;
+import com.modelling.guiservice.model.ModelImage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface ImageDerivativeService {
+
+    /**
+     * Generates the configured variants of every image in the background.
+     * Completes with the same images, their variants filled in.
+     */
+    CompletableFuture<List<ModelImage>> generateVariants(List<ModelImage> images);
+
+    void deleteVariants(List<ImageVariant> variants);
+
+    /**
+     * Completed, failed and rejected generation runs since startup, with the current queue depth.
+     */
+    Map<String, Object> stats();
+}
@@ -0,0 +1,8 @@
+package com.modelling.guiservice.service;
+
+import com.modelling.guiservice.dto.response.IndexMigrationResponse;
+
+public interface IndexMigrationService {
+
+    IndexMigrationResponse migrateModelProfiles();
+}
@@ -1,20 +1,57 @@
 package com.modelling.guiservice.service;
 
+import com.modelling.guiservice.config.properties.ElasticsearchProperties;
 import com.modelling.guiservice.dto.helper.HelperPage;
+import com.modelling.guiservice.dto.request.ModelPatchRequest;
 import com.modelling.guiservice.dto.request.ModelRequest;
 import com.modelling.guiservice.dto.request.ViewRequest;
+import com.modelling.guiservice.dto.response.BatchGetResponse;
 import com.modelling.guiservice.dto.response.ModelResponse;
+import com.modelling.guiservice.dto.response.WriteStatusResponse;
+import com.modelling.guiservice.model.ModelImage;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface ModelService {
 
     ModelResponse createModel(ModelRequest request);
 
+    ModelResponse createModel(ModelRequest request, ElasticsearchProperties.RefreshMode refresh);
+
+    boolean isWriteBehindEnabled();
+
+    WriteStatusResponse createModelQueued(ModelRequest request);
+
+    WriteStatusResponse updateModelQueued(String id, ModelRequest request);
+
+    WriteStatusResponse getWriteStatus(String trackingId);
+
+    void generateVariants(String id, List<ModelImage> images);
+
     HelperPage<ModelResponse> searchModels(ViewRequest viewRequest) throws Exception;
 
+    StreamingResponseBody streamSearchModels(ViewRequest viewRequest, String message) throws Exception;
+
 
     void deleteModel(String id);
 
     ModelResponse updateModel(String id, ModelRequest request);
 
     ModelResponse getModelById(String id);
+
+    // Non-blocking variants, completed once Elasticsearch has answered
+
+    CompletableFuture<HelperPage<ModelResponse>> searchModelsAsync(ViewRequest viewRequest);
+
+    CompletableFuture<ModelResponse> getModelByIdAsync(String id, List<String> fields);
+
+    CompletableFuture<ModelResponse> updateModelAsync(String id, ModelRequest request);
+
+    CompletableFuture<BatchGetResponse> getModelsByIdsAsync(List<String> ids, List<String> fields);
+
+    CompletableFuture<ModelResponse> patchModelAsync(String id, ModelPatchRequest request, long ifSeqNo, long ifPrimaryTerm);
+
+    CompletableFuture<Void> deleteModelAsync(String id);
 }
@@ -0,0 +1,27 @@
+package com.modelling.guiservice.service;
+
+import com.modelling.guiservice.dto.helper.QueuedWrite;
+import com.modelling.guiservice.dto.response.WriteStatusResponse;
+
+import java.util.Map;
+import java.util.Optional;
+
+public interface WriteBehindIndexer {
+
+    boolean isEnabled();
+
+    /**
+     * Queues a full document under the given id. Blocks for at most the offer timeout when the queue is full,
+     * then throws {@link com.modelling.guiservice.dto.exception.WriteQueueFullException}.
+     */
+    QueuedWrite index(String id, Map<String, Object> document);
+
+    /**
+     * Queues a partial document for an existing profile, same backpressure as {@link #index}.
+     */
+    QueuedWrite update(String id, Map<String, Object> partialDocument);
+
+    Optional<WriteStatusResponse> status(String trackingId);
+
+    Map<String, Object> stats();
+}
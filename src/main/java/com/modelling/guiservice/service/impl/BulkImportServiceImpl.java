@@ -0,0 +1,412 @@
+package com.modelling.guiservice.service.impl;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkIngester;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkListener;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modelling.guiservice.cache.SearchResultCache;
+import com.modelling.guiservice.config.properties.BulkImportProperties;
+import com.modelling.guiservice.dto.exception.InvalidImportException;
+import com.modelling.guiservice.dto.request.ModelImportRow;
+import com.modelling.guiservice.dto.response.BulkImportResponse;
+import com.modelling.guiservice.model.ModelImage;
+import com.modelling.guiservice.model.ModelProfile;
+import com.modelling.guiservice.service.BulkImportService;
+import com.modelling.guiservice.service.FileStorageService;
+import com.modelling.guiservice.service.ModelService;
+import com.modelling.guiservice.utility.IndexReadinessRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkImportServiceImpl implements BulkImportService {
+    private static final String indexName = "model_profiles";
+    private static final String STATUS_CREATED = "CREATED";
+    private static final String STATUS_FAILED = "FAILED";
+    // Separator of image file names inside a single CSV cell
+    private static final String CSV_IMAGE_SEPARATOR = "|";
+
+    private final ElasticsearchClient client;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final FileStorageService fileStorageService;
+    private final ModelService modelService;
+    private final IndexReadinessRegistry indexReadinessRegistry;
+    private final SearchResultCache searchResultCache;
+    private final BulkImportProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    // Refresh is relaxed by the first running import and restored by the last one, both under the lock
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private int activeImports;
+    // Concrete index behind the alias that the first running import relaxed
+    private String relaxedIndex;
+
+    /**
+     * Imports profiles from NDJSON or CSV metadata. Images referenced by the rows are read from the zip archive,
+     * which is streamed into file storage before the metadata is streamed into the ES bulk ingester.
+     * Every row owns its images: the first row referencing an archive entry takes the stored file,
+     * later rows take their own reference on it, so deleting one profile never breaks another.
+     */
+    public BulkImportResponse importModels(MultipartFile metadata, MultipartFile imageArchive) {
+        log.info("Starting bulk import of {}", metadata.getOriginalFilename());
+        long startTime = System.currentTimeMillis();
+        indexReadinessRegistry.ensureReady(indexName, ModelProfile.class);
+
+        Map<String, String> imageUrls = imageArchive != null && !imageArchive.isEmpty()
+                ? uploadArchive(imageArchive)
+                : Collections.emptyMap();
+        Map<Integer, BulkImportResponse.RowResult> results = new ConcurrentHashMap<>();
+        Set<String> claimedImages = new HashSet<>();
+        // Stored files no created profile ended up owning
+        Queue<String> releasedUrls = new ConcurrentLinkedQueue<>();
+
+        relaxRefreshInterval();
+        try {
+            BulkIngester<RowContext> ingester = BulkIngester.of(b -> b
+                    .client(client)
+                    .maxOperations(properties.getMaxOperations())
+                    .maxSize(properties.getMaxSizeBytes())
+                    .maxConcurrentRequests(properties.getMaxConcurrentRequests())
+                    .flushInterval(properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS)
+                    .listener(new ImportListener(results, releasedUrls)));
+            try {
+                readRows(metadata, ingester, imageUrls, claimedImages, releasedUrls, results);
+            } finally {
+                // Flushes the last batch and waits for in-flight requests
+                ingester.close();
+            }
+        } finally {
+            restoreRefreshInterval();
+        }
+
+        imageUrls.forEach((image, url) -> {
+            if (!claimedImages.contains(image)) {
+                releasedUrls.add(url);
+            }
+        });
+        deleteImages(releasedUrls);
+        searchResultCache.invalidateAll();
+
+        List<BulkImportResponse.RowResult> rows = results.values().stream()
+                .sorted(Comparator.comparingInt(BulkImportResponse.RowResult::getRow))
+                .collect(Collectors.toList());
+        int succeeded = (int) rows.stream().filter(row -> STATUS_CREATED.equals(row.getStatus())).count();
+        long took = System.currentTimeMillis() - startTime;
+        log.info("Bulk import finished: {} rows, {} created, {} failed in {} ms", rows.size(), succeeded, rows.size() - succeeded, took);
+
+        return BulkImportResponse.builder()
+                .total(rows.size())
+                .succeeded(succeeded)
+                .failed(rows.size() - succeeded)
+                .tookMillis(took)
+                .rows(rows)
+                .build();
+    }
+
+    private Map<String, String> uploadArchive(MultipartFile imageArchive) {
+        Map<String, String> imageUrls = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(imageArchive.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                // Only the base name is used, entry paths never reach the file system
+                String fileName = Paths.get(entry.getName()).getFileName().toString();
+                if (imageUrls.containsKey(fileName)) {
+                    // Rows reference images by base name, two entries sharing one would be ambiguous
+                    deleteImages(imageUrls.values());
+                    throw new InvalidImportException("Duplicate image name in archive: " + fileName);
+                }
+                imageUrls.put(fileName, fileStorageService.uploadFile(StreamUtils.nonClosing(zip), fileName));
+            }
+        } catch (IOException e) {
+            log.error("Error reading image archive: {}", e.getMessage(), e);
+            deleteImages(imageUrls.values());
+            throw new RuntimeException("Failed to read image archive", e);
+        }
+        log.info("Uploaded {} images from archive", imageUrls.size());
+        return imageUrls;
+    }
+
+    private void readRows(MultipartFile metadata, BulkIngester<RowContext> ingester, Map<String, String> imageUrls,
+                          Set<String> claimedImages, Queue<String> releasedUrls, Map<Integer, BulkImportResponse.RowResult> results) {
+        boolean csv = StringUtils.endsWithIgnoreCase(metadata.getOriginalFilename(), ".csv");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(metadata.getInputStream(), StandardCharsets.UTF_8))) {
+            List<String> header = csv ? parseCsvLine(StringUtils.defaultString(reader.readLine())) : null;
+            String line;
+            int rowNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+                rowNumber++;
+                try {
+                    ModelImportRow row = csv
+                            ? toImportRow(header, parseCsvLine(line))
+                            : objectMapper.readValue(line, ModelImportRow.class);
+                    addRow(ingester, rowNumber, row, imageUrls, claimedImages, releasedUrls, results);
+                } catch (Exception e) {
+                    results.put(rowNumber, failed(rowNumber, "Invalid row: " + e.getMessage()));
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error reading import metadata: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to read import metadata", e);
+        }
+    }
+
+    private void addRow(BulkIngester<RowContext> ingester, int rowNumber, ModelImportRow row, Map<String, String> imageUrls,
+                        Set<String> claimedImages, Queue<String> releasedUrls, Map<Integer, BulkImportResponse.RowResult> results) {
+        Set<ConstraintViolation<ModelImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            results.put(rowNumber, failed(rowNumber, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "))));
+            return;
+        }
+        List<String> images = Optional.ofNullable(row.getImages()).orElse(Collections.emptyList());
+        for (String image : images) {
+            if (!imageUrls.containsKey(image)) {
+                results.put(rowNumber, failed(rowNumber, "Image not found in archive: " + image));
+                return;
+            }
+        }
+        List<String> urls = new ArrayList<>();
+        try {
+            for (String image : images) {
+                String url = imageUrls.get(image);
+                urls.add(claimedImages.add(image) ? url : fileStorageService.copyFile(url));
+            }
+        } catch (IOException e) {
+            releasedUrls.addAll(urls);
+            results.put(rowNumber, failed(rowNumber, "Failed to store image: " + e.getMessage()));
+            return;
+        }
+
+        ModelProfile model = ModelProfile.builder()
+                .name(row.getName())
+                .age(row.getAge())
+                .height(row.getHeight())
+                .gender(row.getGender())
+                .bust(row.getBust())
+                .chest(row.getChest())
+                .waist(row.getWaist())
+                .lowerWaist(row.getLowerWaist())
+                .hips(row.getHips())
+                .shoeSize(row.getShoeSize())
+                .eyes(row.getEyes())
+                .isBooked(false)
+                .images(urls.stream()
+                        .map(url -> ModelImage.builder()
+                                .url(url)
+                                .type("PORTFOLIO")
+                                .order(0)
+                                .build())
+                        .collect(Collectors.toList()))
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        Document document = elasticsearchOperations.getElasticsearchConverter().mapObject(model);
+        try {
+            // Blocks while max concurrent requests are in flight, which bounds memory for any input size
+            ingester.add(op -> op.index(i -> i.index(indexName).document(document)), new RowContext(rowNumber, model.getImages()));
+        } catch (RuntimeException e) {
+            releasedUrls.addAll(urls);
+            throw e;
+        }
+    }
+
+    private ModelImportRow toImportRow(List<String> header, List<String> values) {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            String column = header.get(i).trim();
+            String value = values.get(i);
+            if (StringUtils.isBlank(value)) {
+                continue;
+            }
+            map.put(column, "images".equals(column)
+                    ? Arrays.asList(StringUtils.split(value, CSV_IMAGE_SEPARATOR))
+                    : value);
+        }
+        return objectMapper.convertValue(map, ModelImportRow.class);
+    }
+
+    // RFC 4180 style fields on a single line: commas separate, double quotes enclose, "" escapes a quote
+    private List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private void deleteImages(Collection<String> urls) {
+        for (String url : urls) {
+            try {
+                fileStorageService.deleteFile(url);
+            } catch (IOException e) {
+                log.warn("Failed to delete unreferenced import image {}: {}", url, e.getMessage());
+            }
+        }
+    }
+
+    private void relaxRefreshInterval() {
+        refreshLock.lock();
+        try {
+            if (activeImports++ == 0) {
+                relaxedIndex = resolveIndex();
+                putRefreshInterval(relaxedIndex, "\"" + properties.getRefreshIntervalDuringLoad() + "\"");
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void restoreRefreshInterval() {
+        refreshLock.lock();
+        try {
+            if (--activeImports == 0) {
+                // Configured value rather than one read back, which could be another import's relaxed setting
+                String restored = properties.getRefreshIntervalAfterLoad();
+                putRefreshInterval(relaxedIndex, restored != null ? "\"" + restored + "\"" : "null");
+                try {
+                    client.indices().refresh(r -> r.index(relaxedIndex));
+                } catch (IOException | ElasticsearchException e) {
+                    log.warn("Failed to refresh index {} after import: {}", relaxedIndex, e.getMessage());
+                }
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Index the alias points to since the index migration, the index itself before it.
+     */
+    private String resolveIndex() {
+        try {
+            if (client.indices().existsAlias(e -> e.name(indexName)).value()) {
+                return client.indices().getAlias(a -> a.name(indexName)).result().keySet().iterator().next();
+            }
+        } catch (IOException | ElasticsearchException e) {
+            log.warn("Failed to resolve alias {}: {}", indexName, e.getMessage());
+        }
+        return indexName;
+    }
+
+    private void putRefreshInterval(String index, String value) {
+        String settings = "{\"index\":{\"refresh_interval\":" + value + "}}";
+        try {
+            client.indices().putSettings(p -> p.index(index).withJson(new StringReader(settings)));
+            log.info("Set refresh interval of {} to {}", index, value);
+        } catch (IOException | ElasticsearchException e) {
+            log.warn("Failed to set refresh interval of {}: {}", index, e.getMessage());
+        }
+    }
+
+    private static BulkImportResponse.RowResult failed(int rowNumber, String error) {
+        return new BulkImportResponse.RowResult(rowNumber, null, STATUS_FAILED, error);
+    }
+
+    private record RowContext(int rowNumber, List<ModelImage> images) {
+
+        List<String> imageUrls() {
+            return images.stream().map(ModelImage::getUrl).collect(Collectors.toList());
+        }
+    }
+
+    private class ImportListener implements BulkListener<RowContext> {
+        private final Map<Integer, BulkImportResponse.RowResult> results;
+        private final Queue<String> releasedUrls;
+
+        ImportListener(Map<Integer, BulkImportResponse.RowResult> results, Queue<String> releasedUrls) {
+            this.results = results;
+            this.releasedUrls = releasedUrls;
+        }
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request, List<RowContext> contexts) {
+            log.debug("Sending bulk request {} with {} operations", executionId, contexts.size());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, List<RowContext> contexts, BulkResponse response) {
+            for (int i = 0; i < contexts.size(); i++) {
+                RowContext context = contexts.get(i);
+                BulkResponseItem item = response.items().get(i);
+                if (item.error() != null) {
+                    releasedUrls.addAll(context.imageUrls());
+                    results.put(context.rowNumber(), failed(context.rowNumber(), item.error().reason()));
+                } else {
+                    if (!context.images().isEmpty()) {
+                        modelService.generateVariants(item.id(), context.images());
+                    }
+                    results.put(context.rowNumber(), new BulkImportResponse.RowResult(context.rowNumber(), item.id(), STATUS_CREATED, null));
+                }
+            }
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, List<RowContext> contexts, Throwable failure) {
+            log.error("Bulk request {} failed: {}", executionId, failure.getMessage(), failure);
+            for (RowContext context : contexts) {
+                releasedUrls.addAll(context.imageUrls());
+                results.put(context.rowNumber(), failed(context.rowNumber(), failure.getMessage()));
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.modelling.guiservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modelling.guiservice.dto.request.ExportRequest;
+import com.modelling.guiservice.model.ModelProfile;
+import com.modelling.guiservice.model.enums.Gender;
+import com.modelling.guiservice.service.ExportService;
+import com.modelling.guiservice.utility.ElasticSearchUtility;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+    private static final String indexName = "model_profiles";
+    // Column order of a CSV export without projection
+    private static final List<String> CSV_COLUMNS = List.of("id", "name", "age", "height", "gender", "bust", "chest",
+            "waist", "lowerWaist", "hips", "shoeSize", "eyes", "isBooked", "images", "createdAt", "updatedAt");
+    private static final String CSV_LIST_SEPARATOR = "|";
+
+    private final ElasticSearchUtility elasticSearchUtility;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Streams every profile matching the filters as NDJSON or CSV, optionally gzipped on the fly.
+     * Memory use is bounded by the export batch size, not by the index size.
+     */
+    public StreamingResponseBody exportModels(ExportRequest request, ExportFormat format, boolean gzip) throws Exception {
+        log.info("Request received to export data from es as {}", format);
+        String pitId;
+        try {
+            pitId = elasticSearchUtility.openPointInTime(indexName, ModelProfile.class);
+        } catch (Exception e) {
+            log.error("Failed to start export from es {}", e.getMessage(), e);
+            throw new Exception(e);
+        }
+
+        return outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8))) {
+                if (format == ExportFormat.CSV) {
+                    writeCsv(writer, pitId, request);
+                } else {
+                    writeNdjson(writer, pitId, request);
+                }
+            }
+        };
+    }
+
+    private void writeNdjson(Writer writer, String pitId, ExportRequest request) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        // Each document is written on its own line, the generator buffer is only flushed once per batch
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        elasticSearchUtility.scrollPointInTime(pitId, ModelProfile.class, request.getFieldSearchMap(), request.getGlobalSearch(), request.getFields(), new ElasticSearchUtility.HitHandler() {
+            @Override
+            public void accept(String id, Map<String, Object> source) throws IOException {
+                Map<String, Object> document = new LinkedHashMap<>();
+                document.put("id", id);
+                source.forEach((field, value) -> document.put(field, exportValue(field, value)));
+                generator.writeObject(document);
+                generator.writeRaw('\n');
+            }
+
+            @Override
+            public void batchCompleted() throws IOException {
+                generator.flush();
+            }
+        });
+        generator.close();
+    }
+
+    private void writeCsv(Writer writer, String pitId, ExportRequest request) throws IOException {
+        List<String> columns = request.getFields() == null || request.getFields().isEmpty()
+                ? CSV_COLUMNS
+                : request.getFields().stream()
+                .map(field -> StringUtils.substringBefore(field.trim(), "."))
+                .distinct()
+                .collect(Collectors.toList());
+        writeCsvLine(writer, columns);
+        elasticSearchUtility.scrollPointInTime(pitId, ModelProfile.class, request.getFieldSearchMap(), request.getGlobalSearch(), request.getFields(), (id, source) -> {
+            List<String> values = new ArrayList<>(columns.size());
+            for (String column : columns) {
+                Object value = "id".equals(column) ? id : exportValue(column, source.get(column));
+                values.add(csvValue(column, value));
+            }
+            writeCsvLine(writer, values);
+        });
+    }
+
+    private Object exportValue(String field, Object value) {
+        // Gender is stored by enum name but exposed by its label, as in ModelResponse
+        if ("gender".equals(field) && value instanceof String gender) {
+            return Gender.fromLabel(gender).getLabel();
+        }
+        return value;
+    }
+
+    private String csvValue(String column, Object value) {
+        if (value == null) {
+            return "";
+        }
+        if ("images".equals(column) && value instanceof List<?> images) {
+            return images.stream()
+                    .map(image -> image instanceof Map<?, ?> imageMap ? String.valueOf(imageMap.get("url")) : String.valueOf(image))
+                    .collect(Collectors.joining(CSV_LIST_SEPARATOR));
+        }
+        return String.valueOf(value);
+    }
+
+    private void writeCsvLine(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values.get(i);
+            if (StringUtils.containsAny(value, ',', '"', '\n', '\r')) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write('\n');
+    }
+}
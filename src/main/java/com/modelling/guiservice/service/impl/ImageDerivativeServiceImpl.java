@@ -0,0 +1,187 @@
+package com.modelling.guiservice.service.impl;
+
+import com.modelling.guiservice.config.properties.ImageVariantProperties;
+import com.modelling.guiservice.model.ImageVariant;
+import com.modelling.guiservice.model.ModelImage;
+import com.modelling.guiservice.service.FileStorageService;
+import com.modelling.guiservice.service.ImageDerivativeService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+@Service
+@Slf4j
+public class ImageDerivativeServiceImpl implements ImageDerivativeService {
+
+    private final FileStorageService fileStorageService;
+    private final ImageVariantProperties properties;
+    private final ThreadPoolExecutor derivativeExecutor;
+    private final AtomicLong completedRuns = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
+    private final AtomicLong rejectedRuns = new AtomicLong();
+
+    public ImageDerivativeServiceImpl(FileStorageService fileStorageService, ImageVariantProperties properties) {
+        this.fileStorageService = fileStorageService;
+        this.properties = properties;
+        // Bounded on both ends, when the queue is full variants are skipped rather than slowing down writes
+        this.derivativeExecutor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("image-variants-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public CompletableFuture<List<ModelImage>> generateVariants(List<ModelImage> images) {
+        if (!properties.isEnabled() || images == null || images.isEmpty()) {
+            return CompletableFuture.completedFuture(images);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                for (ModelImage image : images) {
+                    image.setVariants(generateVariants(image.getUrl()));
+                }
+                return images;
+            }, derivativeExecutor).whenComplete((result, failure) -> {
+                if (failure == null) {
+                    completedRuns.incrementAndGet();
+                    return;
+                }
+                failedRuns.incrementAndGet();
+                log.error("Failed to generate variants for {} images: {}", images.size(), failure.getMessage(), failure);
+                // Variants of the images handled before the failure would never be attached
+                images.forEach(image -> deleteVariants(image.getVariants()));
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedRuns.incrementAndGet();
+            log.warn("Image variant queue is full, skipping variants for {} images", images.size());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void deleteVariants(List<ImageVariant> variants) {
+        if (variants == null) {
+            return;
+        }
+        for (ImageVariant variant : variants) {
+            try {
+                fileStorageService.deleteFile(variant.getUrl());
+            } catch (IOException e) {
+                log.warn("Failed to delete image variant {}: {}", variant.getUrl(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("active", derivativeExecutor.getActiveCount());
+        result.put("queued", derivativeExecutor.getQueue().size());
+        result.put("completed", completedRuns.get());
+        result.put("failed", failedRuns.get());
+        result.put("rejected", rejectedRuns.get());
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        derivativeExecutor.shutdown();
+    }
+
+    private List<ImageVariant> generateVariants(String originalUrl) {
+        BufferedImage original;
+        try (InputStream inputStream = fileStorageService.loadAsResource(originalUrl).getInputStream()) {
+            original = ImageIO.read(inputStream);
+        } catch (IOException e) {
+            log.warn("Failed to read image {} for variants: {}", originalUrl, e.getMessage());
+            return Collections.emptyList();
+        }
+        if (original == null) {
+            log.warn("Unsupported image format, no variants for {}", originalUrl);
+            return Collections.emptyList();
+        }
+
+        List<ImageVariant> variants = new ArrayList<>();
+        for (Map.Entry<String, Integer> size : properties.getSizes().entrySet()) {
+            int longestSide = Math.max(original.getWidth(), original.getHeight());
+            // Never upscale, a larger variant would only cost bytes
+            if (longestSide <= size.getValue() && !variants.isEmpty()) {
+                break;
+            }
+            try {
+                variants.add(writeVariant(original, size.getKey(), size.getValue()));
+            } catch (IOException e) {
+                log.warn("Failed to generate {} variant of {}: {}", size.getKey(), originalUrl, e.getMessage());
+            }
+        }
+        log.debug("Generated {} variants for {}", variants.size(), originalUrl);
+        return variants;
+    }
+
+    private ImageVariant writeVariant(BufferedImage original, String name, int maxSide) throws IOException {
+        double scale = Math.min(1d, (double) maxSide / Math.max(original.getWidth(), original.getHeight()));
+        int width = Math.max(1, (int) Math.round(original.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(original.getHeight() * scale));
+
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha, transparent areas become white
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(original, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        byte[] bytes = encodeJpeg(resized);
+        String url = fileStorageService.uploadFile(new ByteArrayInputStream(bytes), name + ".jpg");
+        return ImageVariant.builder()
+                .name(name)
+                .url(url)
+                .width(width)
+                .height(height)
+                .size((long) bytes.length)
+                .build();
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.getQuality());
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+}
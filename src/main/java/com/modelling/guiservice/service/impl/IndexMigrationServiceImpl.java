@@ -0,0 +1,274 @@
+package com.modelling.guiservice.service.impl;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Conflicts;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.Script;
+import co.elastic.clients.elasticsearch._types.Slices;
+import co.elastic.clients.elasticsearch._types.SlicesCalculation;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
+import co.elastic.clients.elasticsearch.core.ReindexResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import co.elastic.clients.json.JsonData;
+import com.modelling.guiservice.cache.ProfileCache;
+import com.modelling.guiservice.cache.SearchResultCache;
+import com.modelling.guiservice.dto.response.IndexMigrationResponse;
+import com.modelling.guiservice.model.ModelProfile;
+import com.modelling.guiservice.service.IndexMigrationService;
+import com.modelling.guiservice.utility.ElasticSearchUtility;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves {@code model_profiles} onto a new versioned index built from the current entity mapping and
+ * points the {@code model_profiles} alias at it. The old string values of the numeric fields are
+ * converted on the way; values that do not parse are kept under {@code unparsed}.
+ * Writes are not blocked. Deletes are carried over by a pass over the copy, writes by catch-up passes
+ * repeated right before the alias swap until one copies nothing; only writes landing during that last,
+ * empty pass and deletes landing after the delete pass can still be missed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndexMigrationServiceImpl implements IndexMigrationService {
+    private static final String indexName = "model_profiles";
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final DateTimeFormatter UPDATED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final List<String> INTEGER_FIELDS = List.of("age");
+    private static final List<String> DECIMAL_FIELDS = List.of("height", "bust", "chest", "waist", "lowerWaist", "hips", "shoeSize");
+    // Each catch-up pass re-copies what changed since the previous pass started, minus this margin for clock drift
+    private static final Duration CATCH_UP_MARGIN = Duration.ofSeconds(5);
+    // Under a constant write load the passes never come back empty, the swap follows the last one regardless
+    private static final int MAX_CATCH_UP_PASSES = 10;
+    private static final String TASK_POLL_TIMEOUT = "20s";
+
+    private static final String CONVERSION_SCRIPT = """
+            for (String f : params.integerFields) {
+              def v = ctx._source[f];
+              if (v instanceof String) {
+                String t = v.trim();
+                if (t.isEmpty()) { ctx._source.remove(f); continue; }
+                try { ctx._source[f] = (int) Math.round(Double.parseDouble(t)); }
+                catch (NumberFormatException e) {
+                  if (ctx._source.unparsed == null) { ctx._source.unparsed = [:]; }
+                  ctx._source.unparsed[f] = v; ctx._source.remove(f);
+                }
+              }
+            }
+            for (String f : params.decimalFields) {
+              def v = ctx._source[f];
+              if (v instanceof String) {
+                String t = v.trim();
+                if (t.isEmpty()) { ctx._source.remove(f); continue; }
+                try { ctx._source[f] = Double.parseDouble(t); }
+                catch (NumberFormatException e) {
+                  if (ctx._source.unparsed == null) { ctx._source.unparsed = [:]; }
+                  ctx._source.unparsed[f] = v; ctx._source.remove(f);
+                }
+              }
+            }
+            """;
+
+    private final ElasticsearchClient client;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticSearchUtility elasticSearchUtility;
+    private final SearchResultCache searchResultCache;
+    private final ProfileCache profileCache;
+
+    @Override
+    public IndexMigrationResponse migrateModelProfiles() {
+        long start = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+        String targetIndex = indexName + "_" + VERSION_FORMAT.format(startedAt);
+        List<String> failures = new ArrayList<>();
+        try {
+            boolean aliased = client.indices().existsAlias(e -> e.name(indexName)).value();
+            String sourceIndex = aliased
+                    ? client.indices().getAlias(a -> a.name(indexName)).result().keySet().iterator().next()
+                    : indexName;
+            log.info("Migrating {} from {} to {}", indexName, sourceIndex, targetIndex);
+
+            IndexOperations targetOps = elasticsearchOperations.indexOps(IndexCoordinates.of(targetIndex));
+            targetOps.create(targetOps.createSettings(ModelProfile.class), targetOps.createMapping(ModelProfile.class));
+            putRefreshInterval(targetIndex, "\"-1\"");
+
+            long migrated = reindex(sourceIndex, targetIndex, null, failures);
+
+            putRefreshInterval(targetIndex, "null");
+            client.indices().refresh(r -> r.index(targetIndex));
+            long removed = removeDeleted(sourceIndex, targetIndex, failures);
+
+            // Last before the swap: the delete pass scans the whole copy, writes landing meanwhile are picked up here
+            long caughtUp = catchUp(sourceIndex, targetIndex, startedAt, failures);
+            client.indices().refresh(r -> r.index(targetIndex));
+
+            // One atomic request: readers see either the old or the new index, never neither
+            client.indices().updateAliases(u -> u
+                    .actions(a -> a.add(add -> add.index(targetIndex).alias(indexName)))
+                    .actions(a -> aliased
+                            ? a.remove(remove -> remove.index(sourceIndex).alias(indexName))
+                            : a.removeIndex(remove -> remove.index(sourceIndex))));
+            searchResultCache.invalidateAll();
+            profileCache.invalidateAll();
+            log.info("Alias {} now points to {}, {} documents migrated, {} deleted during the copy", indexName, targetIndex, migrated, removed);
+
+            return IndexMigrationResponse.builder()
+                    .alias(indexName)
+                    .sourceIndex(sourceIndex)
+                    .targetIndex(targetIndex)
+                    .migrated(migrated)
+                    .caughtUp(caughtUp)
+                    .removed(removed)
+                    .failures(failures)
+                    .tookMillis(System.currentTimeMillis() - start)
+                    .build();
+        } catch (IOException | ElasticsearchException e) {
+            log.error("Error migrating index {} to {}: {}", indexName, targetIndex, e.getMessage(), e);
+            throw new RuntimeException("Failed to migrate index: " + indexName, e);
+        }
+    }
+
+    /**
+     * Re-copies whatever changed since {@code since}, pass after pass, until a pass copies nothing.
+     */
+    private long catchUp(String sourceIndex, String targetIndex, LocalDateTime since, List<String> failures) throws IOException {
+        long caughtUp = 0;
+        LocalDateTime passStartedAt = since;
+        for (int pass = 1; pass <= MAX_CATCH_UP_PASSES; pass++) {
+            String changedAfter = UPDATED_AT_FORMAT.format(passStartedAt.minus(CATCH_UP_MARGIN));
+            passStartedAt = LocalDateTime.now();
+            Query changedSince = Query.of(q -> q.range(r -> r.field("updatedAt")
+                    .gte(JsonData.of(changedAfter))
+                    .format("yyyy-MM-dd'T'HH:mm:ss")));
+            long copied = reindex(sourceIndex, targetIndex, changedSince, failures);
+            caughtUp += copied;
+            if (copied == 0) {
+                log.info("Catch-up into {} converged after {} passes", targetIndex, pass);
+                return caughtUp;
+            }
+        }
+        log.warn("Catch-up into {} still copying after {} passes, swapping anyway", targetIndex, MAX_CATCH_UP_PASSES);
+        return caughtUp;
+    }
+
+    /**
+     * Runs the reindex as a task and polls it, so a long copy is not bound by the client's socket timeout.
+     */
+    private long reindex(String sourceIndex, String targetIndex, Query query, List<String> failures) throws IOException {
+        ReindexResponse started = client.reindex(r -> r
+                .source(s -> {
+                    s.index(sourceIndex);
+                    if (query != null) {
+                        s.query(query);
+                    }
+                    return s;
+                })
+                .dest(d -> d.index(targetIndex))
+                .script(Script.of(s -> s.inline(i -> i.lang("painless")
+                        .source(CONVERSION_SCRIPT)
+                        .params(Map.of(
+                                "integerFields", JsonData.of(INTEGER_FIELDS),
+                                "decimalFields", JsonData.of(DECIMAL_FIELDS))))))
+                .conflicts(Conflicts.Proceed)
+                .slices(Slices.of(s -> s.computed(SlicesCalculation.Auto)))
+                .waitForCompletion(false));
+
+        String taskId = started.task();
+        GetTasksResponse task;
+        do {
+            task = client.tasks().get(t -> t.taskId(taskId).waitForCompletion(true).timeout(to -> to.time(TASK_POLL_TIMEOUT)));
+        } while (!task.completed());
+
+        if (task.error() != null) {
+            throw new IllegalStateException("Reindex task " + taskId + " failed: " + task.error().reason());
+        }
+        Map<String, Object> status = task.response() != null
+                ? task.response().to(Map.class)
+                : Map.of();
+        if (status.get("failures") instanceof List<?> taskFailures) {
+            taskFailures.forEach(failure -> failures.add(String.valueOf(failure)));
+        }
+        long copied = 0;
+        for (String counter : List.of("created", "updated")) {
+            if (status.get(counter) instanceof Number number) {
+                copied += number.longValue();
+            }
+        }
+        log.info("Reindex task {} from {} to {} copied {} documents", taskId, sourceIndex, targetIndex, copied);
+        return copied;
+    }
+
+    /**
+     * Deletes from the target whatever the source no longer has: profiles deleted while the copy ran.
+     * Walks the target ids batch by batch and checks them against the source with a realtime mget.
+     */
+    private long removeDeleted(String sourceIndex, String targetIndex, List<String> failures) throws IOException {
+        AtomicLong removed = new AtomicLong();
+        List<String> batch = new ArrayList<>();
+        String pitId = elasticSearchUtility.openPointInTime(targetIndex, ModelProfile.class);
+        elasticSearchUtility.scrollPointInTime(pitId, ModelProfile.class, null, null, List.of("id"), new ElasticSearchUtility.HitHandler() {
+            @Override
+            public void accept(String id, Map<String, Object> source) {
+                batch.add(id);
+            }
+
+            @Override
+            public void batchCompleted() throws IOException {
+                if (batch.isEmpty()) {
+                    return;
+                }
+                MgetResponse<JsonData> existing = client.mget(m -> m
+                        .index(sourceIndex)
+                        .ids(batch)
+                        .source(src -> src.fetch(false)), JsonData.class);
+                batch.clear();
+                List<String> deleted = existing.docs().stream()
+                        .filter(doc -> doc.isResult() && !doc.result().found())
+                        .map(doc -> doc.result().id())
+                        .toList();
+                if (deleted.isEmpty()) {
+                    return;
+                }
+                BulkResponse response = client.bulk(b -> b.operations(deleted.stream()
+                        .map(id -> BulkOperation.of(op -> op.delete(d -> d.index(targetIndex).id(id))))
+                        .toList()));
+                for (BulkResponseItem item : response.items()) {
+                    if (item.error() != null) {
+                        failures.add("delete " + item.id() + ": " + item.error().reason());
+                    } else {
+                        removed.incrementAndGet();
+                    }
+                }
+            }
+        });
+        log.info("Removed {} documents from {} deleted from {} during the copy", removed.get(), targetIndex, sourceIndex);
+        return removed.get();
+    }
+
+    private void putRefreshInterval(String index, String value) {
+        String settings = "{\"index\":{\"refresh_interval\":" + value + "}}";
+        try {
+            client.indices().putSettings(p -> p.index(index).withJson(new StringReader(settings)));
+        } catch (IOException | ElasticsearchException e) {
+            log.warn("Failed to set refresh interval of {}: {}", index, e.getMessage());
+        }
+    }
+}
@@ -2,37 +2,95 @@ package com.modelling.guiservice.service.impl;
 
 import com.modelling.guiservice.service.FileStorageService;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
+import org.springframework.core.io.PathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import java.util.regex.Pattern;
 
 @Slf4j
 public class LocalFileStorageService implements FileStorageService {
 
+    // Chunk handed to FileChannel.transferFrom when the source is a plain stream
+    private static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final String TEMP_FILE_PREFIX = ".upload-";
+    private static final String TEMP_FILE_SUFFIX = ".part";
+    // Reference count of a content-addressed blob is kept next to it
+    private static final String REFS_FILE_SUFFIX = ".refs";
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,10})?");
+    private static final int LOCK_STRIPES = 64;
+    // Two levels of two hex characters: 65536 leaf directories
+    private static final int SHARD_LEVELS = 2;
+    private static final int SHARD_WIDTH = 2;
+
     private final Path storagePath;
     private final String baseUrl;
+    private final boolean contentAddressed;
+    private final ExecutorService uploadExecutor;
+    private final SimpleAsyncTaskExecutor virtualUploadExecutor;
+    private final ReentrantLock[] blobLocks = new ReentrantLock[LOCK_STRIPES];
 
     public LocalFileStorageService(
             @Value("${app.storage.local.path}") String storagePath,
-            @Value("${app.storage.local.base-url}") String baseUrl) {
+            @Value("${app.storage.local.base-url}") String baseUrl,
+            @Value("${app.storage.local.upload-threads}") int uploadThreads,
+            @Value("${app.storage.local.content-addressed}") boolean contentAddressed,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         this.storagePath = Paths.get(storagePath).toAbsolutePath().normalize();
         this.baseUrl = baseUrl;
+        this.contentAddressed = contentAddressed;
+        if (virtualThreads) {
+            // One virtual thread per file; the limit still caps concurrent disk writes
+            this.virtualUploadExecutor = new SimpleAsyncTaskExecutor("file-upload-");
+            this.virtualUploadExecutor.setVirtualThreads(true);
+            this.virtualUploadExecutor.setConcurrencyLimit(uploadThreads);
+            this.uploadExecutor = null;
+        } else {
+            this.virtualUploadExecutor = null;
+            // Bounded pool and queue, callers run the copy themselves when the queue is full
+            this.uploadExecutor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(uploadThreads * 16),
+                    new CustomizableThreadFactory("file-upload-"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            blobLocks[i] = new ReentrantLock();
+        }
         initializeStorageDirectory();
     }
 
     private void initializeStorageDirectory() {
         try {
             Files.createDirectories(storagePath);
-            log.info("Local storage initialized at: {}", storagePath);
+            log.info("Local storage initialized at: {}, content addressed: {}", storagePath, contentAddressed);
         } catch (IOException e) {
             throw new RuntimeException("Failed to initialize local storage directory", e);
         }
@@ -40,36 +98,123 @@ public class LocalFileStorageService implements FileStorageService {
 
     @Override
     public String uploadFile(MultipartFile file) throws IOException {
+        if (contentAddressed) {
+            // The content has to pass through the digest, a rename of the container's temp file would skip it
+            try (InputStream inputStream = file.getInputStream()) {
+                return uploadFile(inputStream, file.getOriginalFilename());
+            }
+        }
         String fileName = generateUniqueFileName(file.getOriginalFilename());
-        Path targetPath = storagePath.resolve(fileName);
-
-        Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-        String fileUrl = baseUrl + "/" + fileName;
+        Path tempPath = createTempFile();
+        try {
+            // Lets the container rename its own temp file into place instead of streaming it through the heap
+            file.transferTo(tempPath.toFile());
+            return publish(tempPath, fileName);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
 
-        log.debug("File uploaded locally: {}", targetPath);
-        return fileUrl;
+    @Override
+    public String uploadFile(InputStream inputStream, String originalFileName) throws IOException {
+        Path tempPath = createTempFile();
+        try {
+            if (!contentAddressed) {
+                transfer(inputStream, tempPath);
+                return publish(tempPath, generateUniqueFileName(originalFileName));
+            }
+            MessageDigest digest = newDigest();
+            transfer(new DigestInputStream(inputStream, digest), tempPath);
+            String fileName = HexFormat.of().formatHex(digest.digest()) + extensionOf(originalFileName);
+            return publishContentAddressed(tempPath, fileName);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
     }
 
+    /**
+     * Uploads all files concurrently. Either every file is stored or, when one fails,
+     * the ones already stored are removed again and the failure is rethrown.
+     */
     @Override
     public List<String> uploadFiles(List<MultipartFile> files) throws IOException {
-        List<String> fileUrls = new ArrayList<>();
+        List<CompletableFuture<String>> uploads = new ArrayList<>(files.size());
         for (MultipartFile file : files) {
-            fileUrls.add(uploadFile(file));
+            uploads.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return uploadFile(file);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, uploadExecutor()));
+        }
+
+        List<String> fileUrls = new ArrayList<>(files.size());
+        Throwable failure = null;
+        // Wait for every upload, even after a failure, so nothing is written after the rollback
+        for (CompletableFuture<String> upload : uploads) {
+            try {
+                fileUrls.add(upload.join());
+            } catch (CompletionException | CancellationException e) {
+                failure = failure == null ? e.getCause() : failure;
+            }
+        }
+        if (failure != null) {
+            log.error("Upload batch failed, removing {} stored files", fileUrls.size());
+            for (String fileUrl : fileUrls) {
+                try {
+                    deleteFile(fileUrl);
+                } catch (IOException e) {
+                    log.warn("Failed to roll back uploaded file {}: {}", fileUrl, e.getMessage());
+                }
+            }
+            throw failure instanceof IOException ioException ? ioException : new IOException("Failed to upload files", failure);
         }
         return fileUrls;
     }
 
+    @Override
+    public String copyFile(String fileUrl) throws IOException {
+        String fileName = fileUrl.substring(fileUrl.lastIndexOf('/') + 1);
+        if (CONTENT_ADDRESSED_NAME.matcher(fileName).matches()) {
+            return retainContentAddressed(fileName);
+        }
+        Path tempPath = createTempFile();
+        try {
+            ReentrantLock lock = lockFor(fileName);
+            lock.lock();
+            try {
+                Files.copy(locate(fileName), tempPath, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                lock.unlock();
+            }
+            // Drops the unique prefix of the source, the copy gets its own
+            return publish(tempPath, generateUniqueFileName(StringUtils.defaultIfEmpty(StringUtils.substringAfter(fileName, "_"), fileName)));
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
     @Override
     public void deleteFile(String fileUrl) throws IOException {
         try {
             String fileName = fileUrl.substring(fileUrl.lastIndexOf('/') + 1);
-            Path filePath = storagePath.resolve(fileName);
-
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
-                log.debug("Deleted local file: {}", filePath);
-            } else {
-                log.warn("File not found for deletion: {}", filePath);
+            if (CONTENT_ADDRESSED_NAME.matcher(fileName).matches()) {
+                releaseContentAddressed(fileName);
+                return;
+            }
+            ReentrantLock lock = lockFor(fileName);
+            lock.lock();
+            try {
+                Path filePath = locate(fileName);
+                if (Files.exists(filePath)) {
+                    Files.delete(filePath);
+                    log.debug("Deleted local file: {}", filePath);
+                } else {
+                    log.warn("File not found for deletion: {}", filePath);
+                }
+            } finally {
+                lock.unlock();
             }
         } catch (Exception e) {
             log.error("Error deleting local file: {}", e.getMessage());
@@ -77,8 +222,270 @@ public class LocalFileStorageService implements FileStorageService {
         }
     }
 
+    @Override
+    public Resource loadAsResource(String fileUrl) throws IOException {
+        String fileName = fileUrl.substring(fileUrl.lastIndexOf('/') + 1);
+        // Temp files and reference counts are never served
+        if (fileName.isEmpty() || fileName.startsWith(".") || fileName.endsWith(REFS_FILE_SUFFIX)) {
+            throw new FileNotFoundException("File not found: " + fileName);
+        }
+        Path filePath = locate(fileName).normalize();
+        if (!Files.isRegularFile(filePath)) {
+            // The file may have been moved into its shard between the two lookups
+            filePath = shardedPath(fileName).normalize();
+        }
+        if (!filePath.startsWith(storagePath) || !Files.isRegularFile(filePath)) {
+            throw new FileNotFoundException("File not found: " + fileName);
+        }
+        return new PathResource(filePath);
+    }
+
+    /**
+     * Moves files still lying flat in the storage root into their shard directories.
+     * Safe to run while serving traffic: each move happens under the same lock as
+     * uploads and deletes of that name, and lookups fall back to the flat location.
+     */
+    public ReshardResult reshard(int threads) throws IOException {
+        long start = System.currentTimeMillis();
+        AtomicLong moved = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 64),
+                new CustomizableThreadFactory("storage-reshard-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        // The directory is streamed, never listed into memory as a whole
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(storagePath, Files::isRegularFile)) {
+            for (Path entry : entries) {
+                String fileName = entry.getFileName().toString();
+                if (fileName.startsWith(".") || fileName.endsWith(REFS_FILE_SUFFIX)) {
+                    continue;
+                }
+                executor.execute(() -> {
+                    try {
+                        if (moveIntoShard(fileName)) {
+                            moved.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        failed.incrementAndGet();
+                        log.warn("Failed to reshard {}: {}", fileName, e.getMessage());
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ReshardResult result = new ReshardResult(moved.get(), failed.get(), System.currentTimeMillis() - start);
+        log.info("Resharded local storage at {}: {}", storagePath, result);
+        return result;
+    }
+
+    public record ReshardResult(long moved, long failed, long tookMillis) {
+    }
+
+    public void close() {
+        if (uploadExecutor != null) {
+            uploadExecutor.shutdown();
+        } else {
+            virtualUploadExecutor.close();
+        }
+    }
+
+    private Executor uploadExecutor() {
+        return uploadExecutor != null ? uploadExecutor : virtualUploadExecutor;
+    }
+
+    private boolean moveIntoShard(String fileName) throws IOException {
+        ReentrantLock lock = lockFor(fileName);
+        lock.lock();
+        try {
+            Path flatPath = storagePath.resolve(fileName);
+            if (!Files.exists(flatPath)) {
+                // Deleted since the directory was read
+                return false;
+            }
+            Path targetPath = shardedPath(fileName);
+            Files.createDirectories(targetPath.getParent());
+            Files.move(flatPath, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Path flatRefsPath = refsPath(flatPath);
+            if (Files.exists(flatRefsPath)) {
+                Files.move(flatRefsPath, refsPath(targetPath), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sharded location of a file, two directory levels taken from a CRC32 of its name.
+     */
+    private Path shardedPath(String fileName) {
+        CRC32 crc = new CRC32();
+        crc.update(fileName.getBytes(StandardCharsets.UTF_8));
+        String hash = String.format("%08x", crc.getValue());
+        Path directory = storagePath;
+        for (int level = 0; level < SHARD_LEVELS; level++) {
+            directory = directory.resolve(hash.substring(level * SHARD_WIDTH, (level + 1) * SHARD_WIDTH));
+        }
+        return directory.resolve(fileName);
+    }
+
+    /**
+     * Current location of a file: its shard, or the flat root for files not migrated yet.
+     * New files always go to the shard.
+     */
+    private Path locate(String fileName) {
+        Path shardedPath = shardedPath(fileName);
+        if (Files.exists(shardedPath)) {
+            return shardedPath;
+        }
+        Path flatPath = storagePath.resolve(fileName);
+        return Files.exists(flatPath) ? flatPath : shardedPath;
+    }
+
+    private Path createTempFile() throws IOException {
+        // Same file system as the targets, so the final move is an atomic rename
+        return Files.createTempFile(storagePath, TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+    }
+
+    private void transfer(InputStream inputStream, Path tempPath) throws IOException {
+        try (ReadableByteChannel source = Channels.newChannel(inputStream);
+             FileChannel target = FileChannel.open(tempPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) > 0) {
+                position += transferred;
+            }
+        }
+    }
+
+    private String publish(Path tempPath, String fileName) throws IOException {
+        Path targetPath = shardedPath(fileName);
+        Files.createDirectories(targetPath.getParent());
+        Files.move(tempPath, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        String fileUrl = baseUrl + "/" + fileName;
+
+        log.debug("File uploaded locally: {}", targetPath);
+        return fileUrl;
+    }
+
+    /**
+     * Stores the blob unless the same content is already present, and takes one reference on it.
+     */
+    private String publishContentAddressed(Path tempPath, String fileName) throws IOException {
+        ReentrantLock lock = lockFor(fileName);
+        lock.lock();
+        try {
+            Path targetPath = locate(fileName);
+            long references = readReferences(targetPath);
+            if (references == 0) {
+                Files.createDirectories(targetPath.getParent());
+                Files.move(tempPath, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                log.debug("File uploaded locally: {}", targetPath);
+            } else {
+                log.debug("Content already stored, reusing: {}", targetPath);
+            }
+            writeReferences(targetPath, references + 1);
+        } finally {
+            lock.unlock();
+        }
+        return baseUrl + "/" + fileName;
+    }
+
+    /**
+     * Takes one more reference on a blob that is already stored.
+     */
+    private String retainContentAddressed(String fileName) throws IOException {
+        ReentrantLock lock = lockFor(fileName);
+        lock.lock();
+        try {
+            Path filePath = locate(fileName);
+            long references = readReferences(filePath);
+            if (references == 0) {
+                throw new FileNotFoundException("File not found: " + fileName);
+            }
+            writeReferences(filePath, references + 1);
+        } finally {
+            lock.unlock();
+        }
+        return baseUrl + "/" + fileName;
+    }
+
+    /**
+     * Drops one reference and removes the blob with its last reference.
+     */
+    private void releaseContentAddressed(String fileName) throws IOException {
+        ReentrantLock lock = lockFor(fileName);
+        lock.lock();
+        try {
+            Path filePath = locate(fileName);
+            long references = readReferences(filePath);
+            if (references <= 1) {
+                if (!Files.deleteIfExists(filePath)) {
+                    log.warn("File not found for deletion: {}", filePath);
+                }
+                Files.deleteIfExists(refsPath(filePath));
+                log.debug("Deleted local file: {}", filePath);
+            } else {
+                writeReferences(filePath, references - 1);
+                log.debug("Released reference on {}, {} left", filePath, references - 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long readReferences(Path blobPath) throws IOException {
+        if (!Files.exists(blobPath)) {
+            return 0;
+        }
+        Path refsPath = refsPath(blobPath);
+        if (!Files.exists(refsPath)) {
+            // Blob without a count, e.g. written before a crash: it has at least one owner
+            return 1;
+        }
+        return Long.parseLong(Files.readString(refsPath, StandardCharsets.US_ASCII).trim());
+    }
+
+    private void writeReferences(Path blobPath, long references) throws IOException {
+        Path tempPath = createTempFile();
+        try {
+            Files.writeString(tempPath, Long.toString(references), StandardCharsets.US_ASCII);
+            Files.move(tempPath, refsPath(blobPath), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    private Path refsPath(Path blobPath) {
+        return blobPath.resolveSibling(blobPath.getFileName() + REFS_FILE_SUFFIX);
+    }
+
+    private ReentrantLock lockFor(String fileName) {
+        return blobLocks[Math.floorMod(fileName.hashCode(), LOCK_STRIPES)];
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String extensionOf(String originalFileName) {
+        String extension = StringUtils.lowerCase(StringUtils.substringAfterLast(StringUtils.defaultString(originalFileName), "."));
+        // Keeps the content type guessable from the URL, anything unusual is dropped
+        return StringUtils.isAlphanumeric(extension) && extension.length() <= 10 ? "." + extension : "";
+    }
+
     private String generateUniqueFileName(String originalFileName) {
         return UUID.randomUUID() + "_" +
                 (originalFileName != null ? originalFileName.replace(" ", "_") : "file");
     }
-}
\ No newline at end of file
+}
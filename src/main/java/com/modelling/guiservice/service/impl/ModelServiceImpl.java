@@ -1,34 +1,71 @@
 package com.modelling.guiservice.service.impl;
 
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.modelling.guiservice.cache.ProfileCache;
+import com.modelling.guiservice.cache.SearchCacheKey;
+import com.modelling.guiservice.cache.SearchResultCache;
+import com.modelling.guiservice.config.properties.ElasticsearchProperties;
+import com.modelling.guiservice.dto.exception.InvalidCursorException;
 import com.modelling.guiservice.dto.exception.ModelNotFoundException;
+import com.modelling.guiservice.dto.exception.ModelVersionConflictException;
+import com.modelling.guiservice.dto.exception.WriteNotFoundException;
 import com.modelling.guiservice.dto.helper.ElasticSearchResult;
 import com.modelling.guiservice.dto.helper.HelperPage;
+import com.modelling.guiservice.dto.helper.QueuedWrite;
+import com.modelling.guiservice.dto.helper.VersionedDocument;
+import com.modelling.guiservice.dto.request.ModelPatchRequest;
 import com.modelling.guiservice.dto.request.ModelRequest;
 import com.modelling.guiservice.dto.request.ViewRequest;
+import com.modelling.guiservice.dto.response.BatchGetResponse;
 import com.modelling.guiservice.dto.response.ModelResponse;
+import com.modelling.guiservice.dto.response.WriteStatusResponse;
 import com.modelling.guiservice.model.ModelImage;
 import com.modelling.guiservice.model.ModelProfile;
+import com.modelling.guiservice.model.enums.Gender;
 import com.modelling.guiservice.repository.ModelRepository;
 import com.modelling.guiservice.service.FileStorageService;
+import com.modelling.guiservice.service.ImageDerivativeService;
 import com.modelling.guiservice.service.ModelService;
+import com.modelling.guiservice.service.WriteBehindIndexer;
 import com.modelling.guiservice.utility.ElasticSearchUtility;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.client.Response;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
 import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
 import org.springframework.data.elasticsearch.core.query.IndexQuery;
 import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
 import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 
@@ -37,15 +74,41 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ModelServiceImpl implements ModelService {
     private static final String indexName = "model_profiles";
+    // Gender is stored by enum name but rendered by its label in ModelResponse
+    private static final Map<String, UnaryOperator<String>> PASS_THROUGH_VALUE_MAPPERS =
+            Map.of("gender", value -> Gender.fromLabel(value).getLabel());
+    // ModelResponse properties in declaration order, the pass-through renders all of them like the bound path does
+    private static final List<String> PASS_THROUGH_FIELDS = List.of("id", "name", "age", "height", "gender", "bust",
+            "chest", "waist", "lowerWaist", "hips", "shoeSize", "eyes", "isBooked", "images", "createdAt", "updatedAt");
     private final ModelRepository modelRepository;
     private final FileStorageService fileStorageService;
+    private final ImageDerivativeService imageDerivativeService;
     private final ElasticSearchUtility elasticSearchUtility;
+    private final SearchResultCache searchResultCache;
+    private final ProfileCache profileCache;
 
     private final ElasticsearchOperations elasticsearchOperations;
 
-    @Transactional
+    private final ObjectMapper objectMapper;
+    private final ElasticsearchProperties elasticsearchProperties;
+    private final WriteBehindIndexer writeBehindIndexer;
+
+    // Blocking follow-up work of the async paths, never the HTTP client's I/O threads
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
     public ModelResponse createModel(ModelRequest request) {
-        log.info("Creating new model with name: {}", request.getName());
+        return createModel(request, null);
+    }
+
+    /**
+     * Indexes a new profile and answers from the indexed object, without reading it back.
+     * With {@code refresh} null the configured policy applies; only WAIT_FOR and IMMEDIATE make the
+     * profile visible to search before returning.
+     */
+    @Transactional
+    public ModelResponse createModel(ModelRequest request, ElasticsearchProperties.RefreshMode refresh) {
+        ElasticsearchProperties.RefreshMode refreshMode = refresh != null ? refresh : elasticsearchProperties.getCreateRefreshPolicy();
+        log.info("Creating new model with name: {} and refresh {}", request.getName(), refreshMode);
 
         try {
             // Upload images
@@ -84,33 +147,127 @@ public class ModelServiceImpl implements ModelService {
                     .withObject(model)
                     .build();
 
-            String documentId = elasticsearchOperations.index(
+            String documentId = elasticsearchOperations.withRefreshPolicy(refreshMode.getPolicy()).index(
                     indexQuery,
                     IndexCoordinates.of(indexName)
             );
+            model.setId(documentId);
             log.info("Successfully created model with ID: {}", documentId);
+            searchResultCache.invalidateAll();
 
-            ModelProfile savedModel = elasticsearchOperations.get(
-                    documentId,
-                    ModelProfile.class,
-                    IndexCoordinates.of(indexName)
-            );
+            generateVariants(documentId, modelImages);
 
-            return mapToResponse(savedModel);
+            return mapToResponse(model);
         } catch (Exception e) {
             log.error("Error creating model: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to create model", e);
         }
     }
 
-    public ModelResponse getModelById(String id) {
-        log.info("Fetching model with ID: {}", id);
-        ModelProfile model = modelRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("Model not found with ID: {}", id);
-                    return new ModelNotFoundException(id);
+    public boolean isWriteBehindEnabled() {
+        return writeBehindIndexer.isEnabled();
+    }
+
+    /**
+     * Stores the images and queues the profile for the next bulk request. The id is assigned here so the
+     * caller gets it right away; variants are generated once the profile is indexed.
+     */
+    public WriteStatusResponse createModelQueued(ModelRequest request) {
+        log.info("Queueing new model with name: {}", request.getName());
+
+        List<String> imageUrls;
+        try {
+            imageUrls = fileStorageService.uploadFiles(request.getImages());
+        } catch (Exception e) {
+            log.error("Error creating model: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to create model", e);
+        }
+        List<ModelImage> modelImages = imageUrls.stream()
+                .map(url -> ModelImage.builder()
+                        .url(url)
+                        .type("PORTFOLIO")
+                        .order(0)
+                        .build())
+                .collect(Collectors.toList());
+        String id = UUID.randomUUID().toString();
+        ModelProfile model = ModelProfile.builder()
+                .name(request.getName())
+                .age(request.getAge())
+                .height(request.getHeight())
+                .gender(request.getGender())
+                .bust(request.getBust())
+                .chest(request.getChest())
+                .waist(request.getWaist())
+                .lowerWaist(request.getLowerWaist())
+                .hips(request.getHips())
+                .shoeSize(request.getShoeSize())
+                .eyes(request.getEyes())
+                .isBooked(false)
+                .images(modelImages)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+
+        QueuedWrite queued;
+        try {
+            queued = writeBehindIndexer.index(id, elasticsearchOperations.getElasticsearchConverter().mapObject(model));
+        } catch (RuntimeException e) {
+            // Nothing will reference the stored images
+            for (String url : imageUrls) {
+                try {
+                    fileStorageService.deleteFile(url);
+                } catch (IOException deleteError) {
+                    log.warn("Failed to delete image {} of rejected model: {}", url, deleteError.getMessage());
+                }
+            }
+            throw e;
+        }
+        queued.getIndexed().thenRun(() -> generateVariants(id, modelImages));
+        return queued.getStatus();
+    }
+
+    /**
+     * Queues the fields {@link #updateModel} writes, as a partial document and without reading the profile
+     * first; a missing profile shows up as a failed write in the status.
+     */
+    public WriteStatusResponse updateModelQueued(String id, ModelRequest request) {
+        log.info("Queueing update of model with ID: {}", id);
+        ModelProfile changes = new ModelProfile();
+        applyRequest(changes, request);
+        Document partialDocument = elasticsearchOperations.getElasticsearchConverter().mapObject(changes);
+        partialDocument.remove("_class");
+        QueuedWrite queued = writeBehindIndexer.update(id, partialDocument);
+        queued.getIndexed().thenRun(() -> profileCache.invalidate(id));
+        return queued.getStatus();
+    }
+
+    public WriteStatusResponse getWriteStatus(String trackingId) {
+        return writeBehindIndexer.status(trackingId)
+                .orElseThrow(() -> new WriteNotFoundException(trackingId));
+    }
+
+    /**
+     * Resized variants are produced in the background and attached to the profile once ready.
+     */
+    public void generateVariants(String id, List<ModelImage> images) {
+        imageDerivativeService.generateVariants(images)
+                .thenAccept(withVariants -> attachVariants(id, withVariants))
+                .exceptionally(e -> {
+                    // Counted in the derivative service stats, the profile keeps serving its originals
+                    log.warn("No image variants for model with ID {}: {}", id, e.getMessage());
+                    return null;
                 });
-        return mapToResponse(model);
+    }
+
+    public ModelResponse getModelById(String id) {
+        try {
+            return getModelByIdAsync(id, null).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
     }
 
     public HelperPage<ModelResponse> searchModels(ViewRequest request) throws Exception {
@@ -120,16 +277,155 @@ public class ModelServiceImpl implements ModelService {
         Sort.Direction sortDir = Sort.Direction.fromOptionalString(request.getSortOrder()).orElse(Sort.Direction.ASC);
         Pageable pageable = PageRequest.of(request.getPage(), request.getPageSize(), sortDir, sortField);
 
+        boolean cursorPagination = Boolean.TRUE.equals(request.getUseCursor()) || StringUtils.isNotBlank(request.getCursor());
+        // Cursor pages are bound to a point in time and are never cached
+        SearchCacheKey cacheKey = cursorPagination ? null : SearchCacheKey.of(request, sortField, sortDir);
+        long cacheGeneration = searchResultCache.generation();
+        HelperPage<ModelResponse> cachedPage = fromCache(cacheKey, pageable);
+        if (cachedPage != null) {
+            return cachedPage;
+        }
+
         try {
-            ElasticSearchResult<ModelProfile> searchResult = elasticSearchUtility.search(indexName, pageable, ModelProfile.class, request.getFieldSearchMap(), request.getGlobalSearch());
-            log.info("Total {} entries fetched from es", searchResult.getTotalCount());
-            return new HelperPage<>(!searchResult.getResults().isEmpty() ? searchResult.getResults().stream().map(this::mapToResponse).collect(Collectors.toList()) : Collections.emptyList(), pageable, searchResult.getTotalCount());
+            ElasticSearchResult<ModelProfile> searchResult = cursorPagination
+                    ? elasticSearchUtility.searchWithCursor(indexName, pageable, ModelProfile.class, request.getFieldSearchMap(), request.getGlobalSearch(), request.getFields(), request.getFacets(), request.getCursor())
+                    : elasticSearchUtility.search(indexName, pageable, ModelProfile.class, request.getFieldSearchMap(), request.getGlobalSearch(), request.getFields(), request.getFacets());
+            return toPage(searchResult, pageable, cacheKey, cacheGeneration);
+        } catch (InvalidCursorException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to extract data from es {}", e.getMessage(), e);
             throw new Exception(e);
         }
     }
 
+    /**
+     * Pages inside the result window are searched without holding a thread while Elasticsearch works.
+     * Cursor and deep pages take several round trips and run the blocking search on the task executor.
+     */
+    public CompletableFuture<HelperPage<ModelResponse>> searchModelsAsync(ViewRequest request) {
+        log.info("Request received to fetch data from es asynchronously");
+
+        String sortField = StringUtils.defaultIfBlank(request.getSortValue(), "name");
+        Sort.Direction sortDir = Sort.Direction.fromOptionalString(request.getSortOrder()).orElse(Sort.Direction.ASC);
+        Pageable pageable = PageRequest.of(request.getPage(), request.getPageSize(), sortDir, sortField);
+
+        boolean cursorPagination = Boolean.TRUE.equals(request.getUseCursor()) || StringUtils.isNotBlank(request.getCursor());
+        if (cursorPagination || !elasticSearchUtility.isWithinResultWindow(pageable)) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return searchModels(request);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, applicationTaskExecutor);
+        }
+
+        SearchCacheKey cacheKey = SearchCacheKey.of(request, sortField, sortDir);
+        long cacheGeneration = searchResultCache.generation();
+        HelperPage<ModelResponse> cachedPage = fromCache(cacheKey, pageable);
+        if (cachedPage != null) {
+            return CompletableFuture.completedFuture(cachedPage);
+        }
+        return elasticSearchUtility.searchAsync(indexName, pageable, ModelProfile.class, request.getFieldSearchMap(), request.getGlobalSearch(), request.getFields(), request.getFacets())
+                .thenApply(searchResult -> toPage(searchResult, pageable, cacheKey, cacheGeneration));
+    }
+
+    private HelperPage<ModelResponse> fromCache(SearchCacheKey cacheKey, Pageable pageable) {
+        if (cacheKey == null) {
+            return null;
+        }
+        SearchResultCache.CachedPage cachedPage = searchResultCache.get(cacheKey);
+        if (cachedPage == null) {
+            return null;
+        }
+        log.info("Serving {} entries from search result cache", cachedPage.content().size());
+        HelperPage<ModelResponse> page = new HelperPage<>(cachedPage.content(), pageable, cachedPage.totalCount());
+        page.setFacets(cachedPage.facets());
+        return page;
+    }
+
+    private HelperPage<ModelResponse> toPage(ElasticSearchResult<ModelProfile> searchResult, Pageable pageable, SearchCacheKey cacheKey, long cacheGeneration) {
+        log.info("Total {} entries fetched from es", searchResult.getTotalCount());
+        List<ModelResponse> content = !searchResult.getResults().isEmpty() ? searchResult.getResults().stream().map(this::mapToResponse).collect(Collectors.toList()) : Collections.emptyList();
+        if (cacheKey != null) {
+            searchResultCache.put(cacheKey, cacheGeneration, content, searchResult.getTotalCount(), searchResult.getFacets());
+        }
+        HelperPage<ModelResponse> page = new HelperPage<>(content, pageable, searchResult.getTotalCount());
+        page.setNextCursor(searchResult.getNextCursor());
+        page.setPrevCursor(searchResult.getPrevCursor());
+        page.setFacets(searchResult.getFacets());
+        return page;
+    }
+
+    public StreamingResponseBody streamSearchModels(ViewRequest request, String message) throws Exception {
+        log.info("Request received to stream data from es");
+
+        String sortField = StringUtils.defaultIfBlank(request.getSortValue(), "name");
+        Sort.Direction sortDir = Sort.Direction.fromOptionalString(request.getSortOrder()).orElse(Sort.Direction.ASC);
+        Pageable pageable = PageRequest.of(request.getPage(), request.getPageSize(), sortDir, sortField);
+
+        boolean cursorPagination = Boolean.TRUE.equals(request.getUseCursor()) || StringUtils.isNotBlank(request.getCursor());
+        boolean faceted = request.getFacets() != null && !request.getFacets().isEmpty();
+        if (cursorPagination || faceted || !elasticSearchUtility.isWithinResultWindow(pageable)) {
+            // Pass-through only covers plain from+size pages, anything else is served the regular way
+            HelperPage<ModelResponse> page = searchModels(request);
+            page.setMessage(message);
+            // Same projection as the pass-through below, so the shape does not depend on the pagination mode
+            ObjectWriter writer = objectMapper.writer(new SimpleFilterProvider().addFilter(ModelResponse.FIELD_FILTER,
+                    SimpleBeanPropertyFilter.filterOutAllExcept(Set.copyOf(passThroughFields(request.getFields())))));
+            return outputStream -> writer.writeValue(outputStream, page);
+        }
+
+        Response response;
+        try {
+            // Executed before streaming starts, so ES failures still map to a proper error status
+            response = elasticSearchUtility.searchRaw(indexName, pageable, ModelProfile.class, request.getFieldSearchMap(), request.getGlobalSearch(), request.getFields());
+        } catch (Exception e) {
+            log.error("Failed to extract data from es {}", e.getMessage(), e);
+            throw new Exception(e);
+        }
+
+        List<String> renderedFields = passThroughFields(request.getFields());
+        return outputStream -> {
+            try (InputStream body = response.getEntity().getContent();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartObject();
+                generator.writeFieldName("content");
+                ElasticSearchUtility.StreamedHits hits = elasticSearchUtility.writeHits(body, generator, renderedFields, PASS_THROUGH_VALUE_MAPPERS);
+                log.info("Streamed {} entries from es", hits.count());
+
+                // Remaining HelperPage fields only depend on counts, render them from an empty page of the same shape
+                HelperPage<Object> envelope = new HelperPage<>(Collections.nCopies(hits.count(), null), pageable, hits.total());
+                envelope.setMessage(message);
+                ObjectNode envelopeNode = objectMapper.valueToTree(envelope);
+                envelopeNode.remove("content");
+                Iterator<Map.Entry<String, JsonNode>> fields = envelopeNode.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    generator.writeFieldName(field.getKey());
+                    generator.writeTree(field.getValue());
+                }
+                generator.writeEndObject();
+            }
+        };
+    }
+
+    /**
+     * Same projection as the search endpoint: requested top level fields only ("images.url" keeps "images"), all otherwise.
+     */
+    private List<String> passThroughFields(List<String> requested) {
+        if (requested == null || requested.isEmpty()) {
+            return PASS_THROUGH_FIELDS;
+        }
+        Set<String> properties = requested.stream()
+                .map(field -> StringUtils.substringBefore(field.trim(), "."))
+                .collect(Collectors.toSet());
+        return PASS_THROUGH_FIELDS.stream().filter(properties::contains).toList();
+    }
+
     @Transactional
     public ModelResponse updateModel(String id, ModelRequest request) {
         log.info("Updating model with ID: {}", id);
@@ -145,19 +441,7 @@ public class ModelServiceImpl implements ModelService {
             throw new ModelNotFoundException(id);
         }
 
-        // Update fields
-        existingModel.setName(request.getName());
-        existingModel.setAge(request.getAge());
-        existingModel.setHeight(request.getHeight());
-        existingModel.setGender(request.getGender());
-        existingModel.setBust(request.getBust());
-        existingModel.setChest(request.getChest());
-        existingModel.setWaist(request.getWaist());
-        existingModel.setLowerWaist(request.getLowerWaist());
-        existingModel.setHips(request.getHips());
-        existingModel.setShoeSize(request.getShoeSize());
-        existingModel.setEyes(request.getEyes());
-        existingModel.setUpdatedAt(LocalDateTime.now());
+        applyRequest(existingModel, request);
 
         // 3. Prepare update query
         UpdateQuery updateQuery = UpdateQuery.builder(id)
@@ -167,6 +451,8 @@ public class ModelServiceImpl implements ModelService {
 
         // 4. Execute update
         elasticsearchOperations.update(updateQuery, IndexCoordinates.of(indexName));
+        searchResultCache.invalidateAll();
+        profileCache.invalidate(id);
 
         // 5. Return updated model
         ModelProfile updatedModel = elasticsearchOperations.get(
@@ -179,6 +465,22 @@ public class ModelServiceImpl implements ModelService {
         return mapToResponse(updatedModel);
     }
 
+    private void applyRequest(ModelProfile existingModel, ModelRequest request) {
+        // Update fields
+        existingModel.setName(request.getName());
+        existingModel.setAge(request.getAge());
+        existingModel.setHeight(request.getHeight());
+        existingModel.setGender(request.getGender());
+        existingModel.setBust(request.getBust());
+        existingModel.setChest(request.getChest());
+        existingModel.setWaist(request.getWaist());
+        existingModel.setLowerWaist(request.getLowerWaist());
+        existingModel.setHips(request.getHips());
+        existingModel.setShoeSize(request.getShoeSize());
+        existingModel.setEyes(request.getEyes());
+        existingModel.setUpdatedAt(LocalDateTime.now());
+    }
+
     @Transactional
     public void deleteModel(String id) {
         log.info("Deleting model with ID: {}", id);
@@ -193,10 +495,13 @@ public class ModelServiceImpl implements ModelService {
             // Delete associated images
             for (ModelImage image : model.getImages()) {
                 fileStorageService.deleteFile(image.getUrl());
+                imageDerivativeService.deleteVariants(image.getVariants());
             }
 
             // Delete from Elasticsearch
             modelRepository.delete(model);
+            searchResultCache.invalidateAll();
+            profileCache.invalidate(id);
             log.info("Successfully deleted model with ID: {}", id);
         } catch (Exception e) {
             log.error("Error deleting model: {}", e.getMessage(), e);
@@ -204,6 +509,181 @@ public class ModelServiceImpl implements ModelService {
         }
     }
 
+    public CompletableFuture<ModelResponse> getModelByIdAsync(String id, List<String> fields) {
+        log.info("Fetching model with ID {} asynchronously", id);
+        CompletableFuture<ModelResponse> loaded = profileCache.isEnabled()
+                // The whole profile is cached, the controller projects the requested fields
+                ? profileCache.get(id, key -> loadVersioned(key, null))
+                : loadVersioned(id, fields);
+        return loaded.thenApply(response -> {
+            if (response == null) {
+                log.warn("Model not found with ID: {}", id);
+                throw new ModelNotFoundException(id);
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Single read path of profiles: responses always carry the seq_no and primary_term needed to patch them.
+     * Completes with null when the profile does not exist.
+     */
+    private CompletableFuture<ModelResponse> loadVersioned(String id, List<String> fields) {
+        return elasticSearchUtility.getVersionedAsync(indexName, id, ModelProfile.class, fields)
+                .thenApply(model -> model.map(versioned -> mapToResponse(versioned)).orElse(null));
+    }
+
+    public CompletableFuture<BatchGetResponse> getModelsByIdsAsync(List<String> ids, List<String> fields) {
+        log.info("Fetching {} models by ID", ids.size());
+        return elasticSearchUtility.multiGetAsync(indexName, ids, ModelProfile.class, fields)
+                .thenApply(results -> {
+                    List<BatchGetResponse.Item> items = results.stream()
+                            .map(result -> {
+                                if (result.getError() != null) {
+                                    log.warn("Failed to fetch model with ID {}: {}", result.getId(), result.getError());
+                                    return new BatchGetResponse.Item(result.getId(), BatchGetResponse.FAILED, null, result.getError());
+                                }
+                                return result.getDocument() != null
+                                        ? new BatchGetResponse.Item(result.getId(), BatchGetResponse.FOUND, mapToResponse(result.getDocument()), null)
+                                        : new BatchGetResponse.Item(result.getId(), BatchGetResponse.NOT_FOUND, null, null);
+                            })
+                            .collect(Collectors.toList());
+                    return BatchGetResponse.builder()
+                            .requested(ids.size())
+                            .found((int) items.stream().filter(item -> BatchGetResponse.FOUND.equals(item.getStatus())).count())
+                            .items(items)
+                            .build();
+                });
+    }
+
+    /**
+     * Writes only the fields present in the request, provided the profile is still at the version the
+     * caller read. One round trip: the response is built from the document returned by the update.
+     */
+    public CompletableFuture<ModelResponse> patchModelAsync(String id, ModelPatchRequest request, long ifSeqNo, long ifPrimaryTerm) {
+        log.info("Patching model with ID {} at seq_no {} and primary_term {}", id, ifSeqNo, ifPrimaryTerm);
+        ModelProfile changes = ModelProfile.builder()
+                .name(request.getName())
+                .age(request.getAge())
+                .height(request.getHeight())
+                .gender(request.getGender())
+                .bust(request.getBust())
+                .chest(request.getChest())
+                .waist(request.getWaist())
+                .lowerWaist(request.getLowerWaist())
+                .hips(request.getHips())
+                .shoeSize(request.getShoeSize())
+                .eyes(request.getEyes())
+                .isBooked(request.getIsBooked())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        // Null properties are left out of the mapped document, so it only carries the changed fields
+        Document partialDocument = elasticsearchOperations.getElasticsearchConverter().mapObject(changes);
+        partialDocument.remove("_class");
+        return elasticSearchUtility.updateIfUnchangedAsync(indexName, id, partialDocument, ifSeqNo, ifPrimaryTerm, ModelProfile.class)
+                .handle((updated, e) -> {
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof ElasticsearchException esException && esException.status() == 409) {
+                            throw new ModelVersionConflictException(id);
+                        }
+                        throw new CompletionException(cause);
+                    }
+                    searchResultCache.invalidateAll();
+                    profileCache.invalidate(id);
+                    log.info("Successfully patched model with ID: {}", id);
+                    return mapToResponse(updated.orElseThrow(() -> {
+                        log.warn("Model not found with ID: {}", id);
+                        return new ModelNotFoundException(id);
+                    }));
+                });
+    }
+
+    /**
+     * Same as {@link #updateModel}, answered from the written document instead of a second get.
+     */
+    public CompletableFuture<ModelResponse> updateModelAsync(String id, ModelRequest request) {
+        log.info("Updating model with ID {} asynchronously", id);
+        return elasticSearchUtility.getByIdAsync(indexName, id, ModelProfile.class, null)
+                .thenCompose(existing -> {
+                    ModelProfile existingModel = existing.orElseThrow(() -> {
+                        log.warn("Model not found with ID: {}", id);
+                        return new ModelNotFoundException(id);
+                    });
+                    applyRequest(existingModel, request);
+                    Document document = elasticsearchOperations.getElasticsearchConverter().mapObject(existingModel);
+                    return elasticSearchUtility.updateAsync(indexName, id, document)
+                            .thenApply(updated -> {
+                                if (!updated) {
+                                    throw new ModelNotFoundException(id);
+                                }
+                                searchResultCache.invalidateAll();
+                                profileCache.invalidate(id);
+                                log.info("Successfully updated model with ID: {}", id);
+                                return mapToResponse(existingModel);
+                            });
+                });
+    }
+
+    public CompletableFuture<Void> deleteModelAsync(String id) {
+        log.info("Deleting model with ID {} asynchronously", id);
+        return elasticSearchUtility.getByIdAsync(indexName, id, ModelProfile.class, List.of("images"))
+                // Removing files is blocking disk work, it leaves the HTTP client's I/O thread
+                .thenAcceptAsync(model -> {
+                    ModelProfile existingModel = model.orElseThrow(() -> {
+                        log.warn("Model not found with ID: {}", id);
+                        return new ModelNotFoundException(id);
+                    });
+                    try {
+                        for (ModelImage image : Optional.ofNullable(existingModel.getImages()).orElse(Collections.emptyList())) {
+                            fileStorageService.deleteFile(image.getUrl());
+                            imageDerivativeService.deleteVariants(image.getVariants());
+                        }
+                    } catch (IOException e) {
+                        log.error("Error deleting model images: {}", e.getMessage(), e);
+                        throw new CompletionException(new RuntimeException("Failed to delete model", e));
+                    }
+                }, applicationTaskExecutor)
+                .thenCompose(ignored -> elasticSearchUtility.deleteAsync(indexName, id))
+                .thenAccept(deleted -> {
+                    searchResultCache.invalidateAll();
+                    profileCache.invalidate(id);
+                    log.info("Successfully deleted model with ID: {}", id);
+                });
+    }
+
+    private void attachVariants(String id, List<ModelImage> images) {
+        ModelProfile changes = new ModelProfile();
+        changes.setUpdatedAt(LocalDateTime.now());
+        Document document = Document.create();
+        // Bumped like any other write, so the index migration's catch-up pass picks the variants up
+        document.put("updatedAt", elasticsearchOperations.getElasticsearchConverter().mapObject(changes).get("updatedAt"));
+        document.put("images", images.stream()
+                .map(image -> objectMapper.convertValue(image, Map.class))
+                .collect(Collectors.toList()));
+        UpdateQuery updateQuery = UpdateQuery.builder(id)
+                .withDocument(document)
+                .withDocAsUpsert(false)
+                .build();
+        try {
+            elasticsearchOperations.update(updateQuery, IndexCoordinates.of(indexName));
+            searchResultCache.invalidateAll();
+            profileCache.invalidate(id);
+            log.info("Attached image variants to model with ID: {}", id);
+        } catch (Exception e) {
+            // Most likely deleted in the meantime, the variants would be orphans
+            log.warn("Failed to attach image variants to model with ID {}: {}", id, e.getMessage());
+            images.forEach(image -> imageDerivativeService.deleteVariants(image.getVariants()));
+        }
+    }
+
+    private ModelResponse mapToResponse(VersionedDocument<ModelProfile> versioned) {
+        ModelResponse response = mapToResponse(versioned.getDocument());
+        response.setSeqNo(versioned.getSeqNo());
+        response.setPrimaryTerm(versioned.getPrimaryTerm());
+        return response;
+    }
+
     private ModelResponse mapToResponse(ModelProfile model) {
         return ModelResponse.builder()
                 .id(model.getId())
@@ -0,0 +1,244 @@
+package com.modelling.guiservice.service.impl;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkIngester;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkListener;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.modelling.guiservice.cache.SearchResultCache;
+import com.modelling.guiservice.config.properties.WriteBehindProperties;
+import com.modelling.guiservice.dto.exception.WriteQueueFullException;
+import com.modelling.guiservice.dto.helper.QueuedWrite;
+import com.modelling.guiservice.dto.response.WriteStatusResponse;
+import com.modelling.guiservice.model.ModelProfile;
+import com.modelling.guiservice.service.WriteBehindIndexer;
+import com.modelling.guiservice.utility.IndexReadinessRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces single profile writes into bulk requests. Accepted writes go into a bounded queue that a single
+ * drainer thread hands to the bulk ingester; only the drainer ever blocks on the ingester, so callers wait
+ * at most the offer timeout and see backpressure once the queue is full because Elasticsearch falls behind.
+ */
+@Service
+@Slf4j
+public class WriteBehindIndexerImpl implements WriteBehindIndexer {
+    private static final String indexName = "model_profiles";
+    private static final String OPERATION_CREATE = "CREATE";
+    private static final String OPERATION_UPDATE = "UPDATE";
+    // Bounds how long the drainer takes to notice shutdown
+    private static final long DRAIN_POLL_MILLIS = 100;
+
+    private final WriteBehindProperties properties;
+    private final IndexReadinessRegistry indexReadinessRegistry;
+    private final SearchResultCache searchResultCache;
+    private final BlockingQueue<QueuedOperation> queue;
+    private final Cache<String, WriteStatusResponse> statuses;
+    private final BulkIngester<PendingWrite> ingester;
+    private final Thread drainer;
+    private volatile boolean running = true;
+
+    public WriteBehindIndexerImpl(ElasticsearchClient client, WriteBehindProperties properties,
+                                  IndexReadinessRegistry indexReadinessRegistry, SearchResultCache searchResultCache) {
+        this.properties = properties;
+        this.indexReadinessRegistry = indexReadinessRegistry;
+        this.searchResultCache = searchResultCache;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedWrites())
+                .expireAfterWrite(properties.getStatusRetention())
+                .build();
+        this.ingester = properties.isEnabled()
+                ? BulkIngester.of(b -> b
+                        .client(client)
+                        .maxOperations(properties.getMaxOperations())
+                        .maxSize(properties.getMaxSizeBytes())
+                        .maxConcurrentRequests(properties.getMaxConcurrentRequests())
+                        .flushInterval(properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS)
+                        .listener(new WriteListener()))
+                : null;
+        if (ingester != null) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("write-behind-drain-");
+            threadFactory.setDaemon(true);
+            this.drainer = threadFactory.newThread(this::drain);
+            this.drainer.start();
+        } else {
+            this.drainer = null;
+        }
+        log.info("Write-behind indexing enabled: {}, queue capacity: {}, flush interval: {}",
+                properties.isEnabled(), properties.getQueueCapacity(), properties.getFlushInterval());
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ingester != null;
+    }
+
+    @Override
+    public QueuedWrite index(String id, Map<String, Object> document) {
+        indexReadinessRegistry.ensureReady(indexName, ModelProfile.class);
+        return enqueue(id, OPERATION_CREATE, BulkOperation.of(op -> op
+                .index(i -> i.index(indexName).id(id).document(document))));
+    }
+
+    @Override
+    public QueuedWrite update(String id, Map<String, Object> partialDocument) {
+        return enqueue(id, OPERATION_UPDATE, BulkOperation.of(op -> op
+                .update(u -> u.index(indexName).id(id).action(a -> a.doc(partialDocument)))));
+    }
+
+    @Override
+    public Optional<WriteStatusResponse> status(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", isEnabled());
+        result.put("capacity", properties.getQueueCapacity());
+        result.put("queued", queue.size());
+        if (ingester != null) {
+            result.put("pendingOperations", ingester.pendingOperations());
+            result.put("pendingRequests", ingester.pendingRequests());
+            result.put("operationsCount", ingester.operationsCount());
+            result.put("requestCount", ingester.requestCount());
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (ingester != null) {
+            running = false;
+            try {
+                // The drainer empties the queue before it exits
+                drainer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Sends what is still buffered and waits for in-flight requests
+            ingester.close();
+        }
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            QueuedOperation queued;
+            try {
+                queued = queue.poll(DRAIN_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (queued == null) {
+                continue;
+            }
+            try {
+                // Blocks while max concurrent requests are in flight, the queue absorbs the callers meanwhile
+                ingester.add(queued.operation(), queued.pending());
+            } catch (RuntimeException e) {
+                log.error("Failed to hand {} of model {} to the bulk ingester: {}", queued.pending().status().getOperation(),
+                        queued.pending().status().getModelId(), e.getMessage(), e);
+                complete(queued.pending(), e.getMessage());
+            }
+        }
+    }
+
+    private QueuedWrite enqueue(String id, String operation, BulkOperation bulkOperation) {
+        if (ingester == null) {
+            throw new IllegalStateException("Write-behind indexing is disabled");
+        }
+        WriteStatusResponse status = WriteStatusResponse.builder()
+                .trackingId(UUID.randomUUID().toString())
+                .modelId(id)
+                .operation(operation)
+                .status(WriteStatusResponse.QUEUED)
+                .queuedAt(LocalDateTime.now())
+                .build();
+        PendingWrite pending = new PendingWrite(status, new CompletableFuture<>());
+        // Tracked before the offer, the drainer may complete the write right away
+        statuses.put(status.getTrackingId(), status);
+        boolean accepted;
+        try {
+            accepted = queue.offer(new QueuedOperation(bulkOperation, pending), properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            statuses.invalidate(status.getTrackingId());
+            log.warn("Write queue full, rejecting {} of model {}", operation, id);
+            throw new WriteQueueFullException(properties.getQueueCapacity());
+        }
+        return new QueuedWrite(status, pending.indexed());
+    }
+
+    private void complete(PendingWrite pending, String error) {
+        statuses.put(pending.status().getTrackingId(), pending.status().toBuilder()
+                .status(error == null ? WriteStatusResponse.INDEXED : WriteStatusResponse.FAILED)
+                .error(error)
+                .completedAt(LocalDateTime.now())
+                .build());
+        if (error == null) {
+            pending.indexed().complete(null);
+        } else {
+            pending.indexed().completeExceptionally(new IllegalStateException(error));
+        }
+    }
+
+    private record PendingWrite(WriteStatusResponse status, CompletableFuture<Void> indexed) {
+    }
+
+    private record QueuedOperation(BulkOperation operation, PendingWrite pending) {
+    }
+
+    private class WriteListener implements BulkListener<PendingWrite> {
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request, List<PendingWrite> contexts) {
+            log.debug("Sending write-behind bulk request {} with {} operations", executionId, contexts.size());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, List<PendingWrite> contexts, BulkResponse response) {
+            // Once per batch rather than once per write
+            searchResultCache.invalidateAll();
+            int failed = 0;
+            for (int i = 0; i < contexts.size(); i++) {
+                BulkResponseItem item = response.items().get(i);
+                if (item.error() != null) {
+                    failed++;
+                }
+                complete(contexts.get(i), item.error() != null ? item.error().reason() : null);
+            }
+            log.debug("Write-behind bulk request {} took {} ms, {} of {} operations failed",
+                    executionId, response.took(), failed, contexts.size());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, List<PendingWrite> contexts, Throwable failure) {
+            log.error("Write-behind bulk request {} with {} operations failed: {}", executionId, contexts.size(), failure.getMessage(), failure);
+            for (PendingWrite pending : contexts) {
+                complete(pending, "Bulk request failed: " + failure.getMessage());
+            }
+        }
+    }
+}
@@ -1,30 +1,59 @@
 package com.modelling.guiservice.utility;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.FieldValue;
 import co.elastic.clients.elasticsearch._types.SortOptions;
 import co.elastic.clients.elasticsearch._types.SortOrder;
-import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
-import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
-import co.elastic.clients.elasticsearch.core.CountRequest;
-import co.elastic.clients.elasticsearch.core.CountResponse;
+import co.elastic.clients.elasticsearch._types.Result;
+import co.elastic.clients.elasticsearch.core.GetRequest;
+import co.elastic.clients.elasticsearch.core.MgetRequest;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
-import co.elastic.clients.elasticsearch.indices.CreateIndexRequest;
-import co.elastic.clients.elasticsearch.indices.CreateIndexResponse;
-import co.elastic.clients.elasticsearch.indices.ExistsRequest;
+import co.elastic.clients.elasticsearch.core.UpdateRequest;
+import co.elastic.clients.elasticsearch.core.get.GetResult;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.PointInTimeReference;
+import co.elastic.clients.elasticsearch.core.search.SourceConfig;
+import co.elastic.clients.elasticsearch.core.search.TrackHits;
 import co.elastic.clients.json.JsonData;
+import co.elastic.clients.util.ObjectBuilder;
+import co.elastic.clients.json.JsonpMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.modelling.guiservice.config.properties.ElasticsearchProperties;
+import com.modelling.guiservice.dto.exception.InvalidCursorException;
 import com.modelling.guiservice.dto.helper.ElasticSearchResult;
+import com.modelling.guiservice.dto.helper.FacetBucket;
+import com.modelling.guiservice.dto.helper.MultiGetResult;
+import com.modelling.guiservice.dto.request.FacetRequest;
+import com.modelling.guiservice.dto.helper.SearchCursor;
+import com.modelling.guiservice.dto.helper.VersionedDocument;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestClient;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 @Component
@@ -33,103 +62,663 @@ public class ElasticSearchUtility {
 
     private final ElasticsearchClient client;
 
+    private final ElasticsearchAsyncClient asyncClient;
+
     private final ObjectMapper objectMapper;
 
+    private final ElasticsearchProperties properties;
+
+    private final IndexReadinessRegistry indexReadinessRegistry;
+
+    private final RestClient restClient;
+
+    private final QueryCompiler queryCompiler;
 
-    public ElasticSearchUtility(ElasticsearchClient client, ObjectMapper objectMapper) {
+    public ElasticSearchUtility(ElasticsearchClient client, ElasticsearchAsyncClient asyncClient, ObjectMapper objectMapper, ElasticsearchProperties properties, IndexReadinessRegistry indexReadinessRegistry, RestClient restClient, QueryCompiler queryCompiler) {
         this.client = client;
+        this.asyncClient = asyncClient;
         this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.indexReadinessRegistry = indexReadinessRegistry;
+        this.restClient = restClient;
+        this.queryCompiler = queryCompiler;
     }
 
 
     public <T> ElasticSearchResult<T> search(String indexName, Pageable pageable, Class<T> entityClass, Map<String, Object> fieldSearchMap, String globalSearch) throws IOException {
-        createIndexIfNotExists(indexName);
-        Query boolQuery = buildBoolQuery(fieldSearchMap, globalSearch);
-        CountRequest countRequest = CountRequest.of(i -> i.index(indexName));
-        CountResponse countResponse = client.count(countRequest);
-        long totalDocs = countResponse.count();
-        log.info("Total {} docs are present in {} index", totalDocs, indexName);
-        if (totalDocs == 0) {
-            return new ElasticSearchResult<>(Collections.emptyList(), 0);
-        }
+        return search(indexName, pageable, entityClass, fieldSearchMap, globalSearch, null);
+    }
+
+    /**
+     * @param fields optional projection, pushed down to Elasticsearch as {@code _source} includes
+     */
+    public <T> ElasticSearchResult<T> search(String indexName, Pageable pageable, Class<T> entityClass, Map<String, Object> fieldSearchMap, String globalSearch, List<String> fields) throws IOException {
+        return search(indexName, pageable, entityClass, fieldSearchMap, globalSearch, fields, null);
+    }
+
+    /**
+     * Same as {@link #search(String, Pageable, Class, Map, String, List)}, with the requested facets
+     * aggregated in the same request as the page of hits.
+     */
+    public <T> ElasticSearchResult<T> search(String indexName, Pageable pageable, Class<T> entityClass, Map<String, Object> fieldSearchMap, String globalSearch, List<String> fields, List<FacetRequest> facets) throws IOException {
+        indexReadinessRegistry.ensureReady(indexName, entityClass);
+        Query boolQuery = queryCompiler.compile(fieldSearchMap, globalSearch, entityClass);
+        Map<String, Aggregation> aggregations = queryCompiler.compileFacets(facets);
+        SourceConfig sourceConfig = buildSourceConfig(fields);
         // Remove duplicate sort fields
         Sort validateSort = removeDuplicateSortFields(pageable.getSort());
-        // Sorting
-        List<SortOptions> sortOptions = buildSortOptions(validateSort);
-        return totalDocs < 10000 ? executeFromSizePagination(indexName, boolQuery, sortOptions, pageable, entityClass) : executeSearchAfterPagination(indexName, boolQuery, sortOptions, pageable, entityClass);
+        try {
+            // from+size is only allowed inside the max result window, deeper offsets walk there with search_after
+            if (isWithinResultWindow(pageable)) {
+                return executeFromSizePagination(indexName, boolQuery, aggregations, buildSortOptions(validateSort), sourceConfig, pageable, entityClass);
+            }
+            return executeSearchAfterPagination(indexName, boolQuery, aggregations, validateSort, sourceConfig, pageable, entityClass);
+        } catch (ElasticsearchException e) {
+            if (isIndexNotFound(e)) {
+                indexReadinessRegistry.markMissing(indexName);
+                return new ElasticSearchResult<>(Collections.emptyList(), 0);
+            }
+            throw e;
+        }
     }
 
-    private void createIndexIfNotExists(String indexName) throws IOException {
-        // Check if index exists
-        boolean exists = client.indices()
-                .exists(ExistsRequest.of(e -> e.index(indexName)))
-                .value();
+    public boolean isWithinResultWindow(Pageable pageable) {
+        return pageable.getOffset() + pageable.getPageSize() <= properties.getSearch().getMaxResultWindow();
+    }
 
-        if (!exists) {
-            // Create index
-            CreateIndexResponse response = client.indices()
-                    .create(CreateIndexRequest.of(c -> c.index(indexName)));
+    /**
+     * Runs a from+size search through the low level client and hands back the raw response, so the body
+     * can be streamed with {@link #writeHits} instead of being bound to objects.
+     * Only valid for pages inside the max result window.
+     */
+    public Response searchRaw(String indexName, Pageable pageable, Class<?> entityClass, Map<String, Object> fieldSearchMap, String globalSearch, List<String> fields) throws IOException {
+        indexReadinessRegistry.ensureReady(indexName, entityClass);
+        Query boolQuery = queryCompiler.compile(fieldSearchMap, globalSearch, entityClass);
+        List<SortOptions> sortOptions = buildSortOptions(removeDuplicateSortFields(pageable.getSort()));
+        SourceConfig sourceConfig = buildSourceConfig(fields);
+        SearchRequest searchRequest = SearchRequest.of(r -> r
+                .index(indexName)
+                .from((int) pageable.getOffset())
+                .size(pageable.getPageSize())
+                .sort(sortOptions)
+                .query(boolQuery)
+                .source(sourceConfig)
+                .trackTotalHits(this::trackTotalHits)
+        );
+        log.info("Executing pass-through Elasticsearch Query: {}", searchRequest);
 
-            if (!response.acknowledged()) {
-                throw new RuntimeException("Failed to create index: " + indexName);
+        StringWriter body = new StringWriter();
+        JsonpMapper jsonpMapper = client._jsonpMapper();
+        try (jakarta.json.stream.JsonGenerator generator = jsonpMapper.jsonProvider().createGenerator(body)) {
+            searchRequest.serialize(generator, jsonpMapper);
+        }
+        Request request = new Request("POST", "/" + indexName + "/_search");
+        request.setJsonEntity(body.toString());
+        try {
+            return performRequest(request);
+        } catch (ResponseException e) {
+            if (e.getResponse().getStatusLine().getStatusCode() == 404) {
+                indexReadinessRegistry.markMissing(indexName);
             }
-        }else{
-            log.info("Index already present");
+            throw e;
         }
-
     }
 
-    private <T> ElasticSearchResult<T> executeSearchAfterPagination(String indexName, Query boolQuery, List<SortOptions> sortOptions, Pageable pageable, Class<T> entityClass) throws IOException {
+    /**
+     * Waits on the asynchronous path: the synchronous one blocks in a synchronized Future, which pins
+     * the carrier when the caller is a virtual thread.
+     */
+    private Response performRequest(Request request) throws IOException {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        restClient.performRequestAsync(request, new ResponseListener() {
+            @Override
+            public void onSuccess(Response response) {
+                future.complete(response);
+            }
 
-        log.info("Using search _after pagination");
-        Object[] searchAfterValues = null;
-        SearchResponse<JsonData> searchResponse;
-        for (int currentPage = 0; currentPage <= pageable.getPageNumber(); currentPage++) {
-            SearchRequest.Builder searchRequestBuilder = new SearchRequest.Builder()
-                    .index(indexName).size(pageable.getPageSize())
-                    .sort(sortOptions)
-                    .query(boolQuery)
-                    .trackTotalHits(t -> t.enabled(true));
+            @Override
+            public void onFailure(Exception exception) {
+                future.completeExceptionally(exception);
+            }
+        });
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            } else if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
 
-            if (searchAfterValues != null) {
-                searchRequestBuilder.searchAfter(Arrays.stream(searchAfterValues)
-                        .map(FieldValue::of)
-                        .collect(Collectors.toList()));
+    /**
+     * Streams the hits of a raw search response into {@code generator} as a JSON array of {@code _source}
+     * objects with the hit id added, without binding them to any intermediate object.
+     *
+     * @param fields       properties written for every hit, in this order, as null when absent from the source;
+     *                     {@code id} is taken from the hit id and source fields not listed are dropped
+     * @param valueMappers rewrites of scalar source values by field name, to match the API representation
+     * @return number of hits written and the total hit count
+     */
+    public StreamedHits writeHits(InputStream responseBody, JsonGenerator generator, List<String> fields, Map<String, UnaryOperator<String>> valueMappers) throws IOException {
+        long total = 0;
+        int count = 0;
+        generator.writeStartArray();
+        try (JsonParser parser = objectMapper.getFactory().createParser(responseBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected Elasticsearch response");
             }
-            SearchRequest searchRequest = searchRequestBuilder.build();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (!"hits".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String hitsField = parser.currentName();
+                    parser.nextToken();
+                    if ("total".equals(hitsField)) {
+                        total = readTotal(parser);
+                    } else if ("hits".equals(hitsField)) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            writeHit(parser, generator, fields, valueMappers);
+                            count++;
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        generator.writeEndArray();
+        return new StreamedHits(count, total);
+    }
 
-            log.info("Executing Elasticsearch Query: {}", searchRequest);
-            searchResponse = client.search(searchRequest, JsonData.class);
-            List<T> pageResults = extractResults(searchResponse, entityClass);
-            if (currentPage == pageable.getPageNumber()) {
-                return new ElasticSearchResult<>(pageResults, searchResponse.hits().total().value());
+    private long readTotal(JsonParser parser) throws IOException {
+        long total = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("value".equals(field)) {
+                total = parser.getLongValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return total;
+    }
+
+    private void writeHit(JsonParser parser, JsonGenerator generator, List<String> fields, Map<String, UnaryOperator<String>> valueMappers) throws IOException {
+        // Source fields arrive in stored order and may be missing, buffer them to write the fixed shape
+        String id = null;
+        Map<String, TokenBuffer> values = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("_id".equals(field)) {
+                id = parser.getText();
+            } else if ("_source".equals(field)) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String sourceField = parser.currentName();
+                    JsonToken valueToken = parser.nextToken();
+                    if (!fields.contains(sourceField)) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    TokenBuffer value = new TokenBuffer(parser);
+                    UnaryOperator<String> valueMapper = valueMappers.get(sourceField);
+                    if (valueMapper != null && valueToken == JsonToken.VALUE_STRING) {
+                        value.writeString(valueMapper.apply(parser.getText()));
+                    } else {
+                        value.copyCurrentStructure(parser);
+                    }
+                    values.put(sourceField, value);
+                }
+            } else {
+                parser.skipChildren();
             }
-            if (!pageResults.isEmpty()) {
-                if (!searchResponse.hits().hits().isEmpty()) {
-                    searchAfterValues = searchResponse.hits().hits().get(searchResponse.hits().hits().size() - 1).sort().toArray();
+        }
+
+        generator.writeStartObject();
+        for (String field : fields) {
+            generator.writeFieldName(field);
+            TokenBuffer value = values.get(field);
+            if ("id".equals(field)) {
+                generator.writeString(id);
+            } else if (value != null) {
+                try (JsonParser valueParser = value.asParser()) {
+                    valueParser.nextToken();
+                    generator.copyCurrentStructure(valueParser);
                 }
             } else {
-                break;
+                generator.writeNull();
             }
         }
-        return new ElasticSearchResult<>(Collections.emptyList(), 0);
+        generator.writeEndObject();
     }
 
+    public record StreamedHits(int count, long total) {
+    }
 
-    private <T> ElasticSearchResult<T> executeFromSizePagination(String indexName, Query boolQuery, List<SortOptions> sortOptions, Pageable pageable, Class<T> entityClass) throws IOException {
-        log.info("Using from+size pagination");
-        SearchRequest searchRequest = SearchRequest.of(r -> r
-                .index(indexName)
-                .from((int) pageable.getOffset())
+    /**
+     * Cursor pagination over a point-in-time: every page is a single search, whatever its depth.
+     * Without a cursor a new PIT is opened and the first page is returned; the returned next/prev
+     * tokens carry the PIT id and the boundary sort values of the page.
+     */
+    public <T> ElasticSearchResult<T> searchWithCursor(String indexName, Pageable pageable, Class<T> entityClass, Map<String, Object> fieldSearchMap, String globalSearch, List<String> fields, List<FacetRequest> facets, String cursorToken) throws IOException {
+        Query boolQuery = queryCompiler.compile(fieldSearchMap, globalSearch, entityClass);
+        Sort sort = removeDuplicateSortFields(pageable.getSort());
+        String fingerprint = cursorFingerprint(boolQuery, sort, pageable.getPageSize());
+        SearchCursor cursor = StringUtils.isNotBlank(cursorToken) ? decodeCursor(cursorToken) : null;
+        if (cursor != null && !fingerprint.equals(cursor.getFingerprint())) {
+            // search_after values only line up with the sort they were taken from
+            throw new InvalidCursorException("Cursor belongs to a different query, sort or page size, restart pagination without a cursor");
+        }
+        String pitId;
+        if (cursor == null) {
+            indexReadinessRegistry.ensureReady(indexName, entityClass);
+            pitId = client.openPointInTime(p -> p.index(indexName)
+                    .keepAlive(t -> t.time(properties.getSearch().getPitKeepAlive()))).id();
+            log.info("Opened point in time for {} index", indexName);
+        } else {
+            pitId = cursor.getPitId();
+        }
+        boolean reverse = cursor != null && cursor.isReverse();
+
+        List<SortOptions> sortOptions = buildCursorSortOptions(sort, reverse);
+
+        SearchRequest.Builder searchRequestBuilder = new SearchRequest.Builder()
+                .pit(pitReference(pitId))
                 .size(pageable.getPageSize())
                 .sort(sortOptions)
                 .query(boolQuery)
-                .trackTotalHits(t -> t.enabled(true))
-        );
+                .source(buildSourceConfig(fields))
+                .aggregations(queryCompiler.compileFacets(facets))
+                .trackTotalHits(this::trackTotalHits);
+        if (cursor != null && cursor.getSearchAfter() != null) {
+            searchRequestBuilder.searchAfter(cursor.getSearchAfter().stream()
+                    .map(this::toFieldValue)
+                    .collect(Collectors.toList()));
+        }
+        SearchRequest searchRequest = searchRequestBuilder.build();
+
+        log.info("Executing Elasticsearch Query: {}", searchRequest);
+        SearchResponse<JsonData> searchResponse;
+        try {
+            searchResponse = client.search(searchRequest, JsonData.class);
+        } catch (ElasticsearchException e) {
+            if (cursor != null && e.status() == 404) {
+                throw new InvalidCursorException("Cursor has expired, restart pagination without a cursor", e);
+            }
+            if (cursor != null && e.status() == 400) {
+                throw new InvalidCursorException("Cursor does not match the current mapping, restart pagination without a cursor", e);
+            }
+            throw e;
+        }
+
+        List<Hit<JsonData>> hits = new ArrayList<>(searchResponse.hits().hits());
+        if (reverse) {
+            // Hits of a backwards page come in reversed sort order
+            Collections.reverse(hits);
+        }
+        // ES may hand back a refreshed PIT id, always continue with the latest one
+        String currentPitId = StringUtils.defaultIfBlank(searchResponse.pitId(), pitId);
+        boolean fullPage = hits.size() == pageable.getPageSize();
+
+        String nextCursor = null;
+        String prevCursor = null;
+        if (!hits.isEmpty()) {
+            if (reverse || fullPage) {
+                nextCursor = encodeCursor(new SearchCursor(currentPitId, sortValues(hits.get(hits.size() - 1)), false, fingerprint));
+            }
+            if (cursor != null && (!reverse || fullPage)) {
+                prevCursor = encodeCursor(new SearchCursor(currentPitId, sortValues(hits.get(0)), true, fingerprint));
+            }
+        }
+        if (nextCursor == null && prevCursor == null) {
+            closePointInTime(currentPitId);
+        }
+
+        List<T> results = hits.stream()
+                .map(hit -> toEntity(hit, entityClass))
+                .collect(Collectors.toList());
+        return ElasticSearchResult.<T>builder()
+                .results(results)
+                .totalCount(searchResponse.hits().total().value())
+                .nextCursor(nextCursor)
+                .prevCursor(prevCursor)
+                .facets(readFacets(searchResponse))
+                .build();
+    }
+
+    /**
+     * Opens a point in time for {@link #scrollPointInTime}. Opened eagerly so that a failing cluster
+     * is reported before any response is streamed.
+     */
+    public String openPointInTime(String indexName, Class<?> entityClass) throws IOException {
+        indexReadinessRegistry.ensureReady(indexName, entityClass);
+        return client.openPointInTime(p -> p.index(indexName)
+                .keepAlive(t -> t.time(properties.getSearch().getPitKeepAlive()))).id();
+    }
+
+    /**
+     * Walks every hit matching the filters inside the given point in time, one batch at a time, so memory
+     * stays bounded by the batch size whatever the index size. The point in time is closed when done.
+     */
+    public void scrollPointInTime(String pitId, Class<?> entityClass, Map<String, Object> fieldSearchMap, String globalSearch, List<String> fields, HitHandler handler) throws IOException {
+        Query boolQuery = queryCompiler.compile(fieldSearchMap, globalSearch, entityClass);
+        SourceConfig sourceConfig = buildSourceConfig(fields);
+        int batchSize = properties.getSearch().getExportBatchSize();
+        // Index order is the cheapest sort and _shard_doc is unique within the PIT
+        SortOptions shardDocSort = SortOptions.of(s -> s.field(f -> f.field("_shard_doc").order(SortOrder.Asc)));
+        String currentPitId = pitId;
+        try {
+            List<FieldValue> searchAfterValues = null;
+            long exported = 0;
+            while (true) {
+                SearchRequest.Builder searchRequestBuilder = new SearchRequest.Builder()
+                        .pit(pitReference(currentPitId))
+                        .size(batchSize)
+                        .sort(shardDocSort)
+                        .query(boolQuery)
+                        .source(sourceConfig)
+                        .trackTotalHits(t -> t.enabled(false));
+                if (searchAfterValues != null) {
+                    searchRequestBuilder.searchAfter(searchAfterValues);
+                }
+                SearchResponse<JsonData> searchResponse = client.search(searchRequestBuilder.build(), JsonData.class);
+                currentPitId = StringUtils.defaultIfBlank(searchResponse.pitId(), currentPitId);
+                List<Hit<JsonData>> hits = searchResponse.hits().hits();
+                for (Hit<JsonData> hit : hits) {
+                    Map<String, Object> source = hit.source() != null ? hit.source().to(Map.class) : new HashMap<>();
+                    source.remove("_class");
+                    handler.accept(hit.id(), source);
+                }
+                handler.batchCompleted();
+                exported += hits.size();
+                if (hits.size() < batchSize) {
+                    log.info("Scrolled {} documents from point in time", exported);
+                    return;
+                }
+                searchAfterValues = hits.get(hits.size() - 1).sort();
+            }
+        } finally {
+            closePointInTime(currentPitId);
+        }
+    }
+
+    @FunctionalInterface
+    public interface HitHandler {
+        void accept(String id, Map<String, Object> source) throws IOException;
+
+        /**
+         * Called after every batch of hits, e.g. to flush what was written for it.
+         */
+        default void batchCompleted() throws IOException {
+        }
+    }
+
+    private void closePointInTime(String pitId) {
+        try {
+            client.closePointInTime(c -> c.id(pitId));
+            log.info("Closed point in time");
+        } catch (IOException | ElasticsearchException e) {
+            // The PIT expires on its own after keep alive, nothing else to do
+            log.warn("Failed to close point in time: {}", e.getMessage());
+        }
+    }
+
+    private boolean isIndexNotFound(ElasticsearchException e) {
+        return e.error() != null && "index_not_found_exception".equals(e.error().type());
+    }
+
+    /**
+     * Offsets beyond the max result window: walk to the offset inside a short-lived PIT with
+     * sort-values-only batches as large as the window allows, then fetch the requested page.
+     */
+    private <T> ElasticSearchResult<T> executeSearchAfterPagination(String indexName, Query boolQuery, Map<String, Aggregation> aggregations, Sort sort, SourceConfig sourceConfig, Pageable pageable, Class<T> entityClass) throws IOException {
+
+        log.info("Using search _after pagination");
+        String keepAlive = properties.getSearch().getPitKeepAlive();
+        String pitId = client.openPointInTime(p -> p.index(indexName).keepAlive(t -> t.time(keepAlive))).id();
+        List<SortOptions> sortOptions = buildCursorSortOptions(sort, false);
+        try {
+            List<FieldValue> searchAfterValues = null;
+            long skipped = 0;
+            while (skipped < pageable.getOffset()) {
+                int batchSize = (int) Math.min(properties.getSearch().getMaxResultWindow(), pageable.getOffset() - skipped);
+                SearchRequest.Builder skipRequestBuilder = new SearchRequest.Builder()
+                        .pit(pitReference(pitId))
+                        .size(batchSize)
+                        .sort(sortOptions)
+                        .query(boolQuery)
+                        .source(src -> src.fetch(false))
+                        .trackTotalHits(t -> t.enabled(false));
+                if (searchAfterValues != null) {
+                    skipRequestBuilder.searchAfter(searchAfterValues);
+                }
+                SearchResponse<JsonData> skipResponse = client.search(skipRequestBuilder.build(), JsonData.class);
+                pitId = StringUtils.defaultIfBlank(skipResponse.pitId(), pitId);
+                List<Hit<JsonData>> hits = skipResponse.hits().hits();
+                skipped += hits.size();
+                if (hits.size() < batchSize) {
+                    // Requested page is past the last document
+                    return new ElasticSearchResult<>(Collections.emptyList(), skipped);
+                }
+                searchAfterValues = hits.get(hits.size() - 1).sort();
+            }
+
+            SearchRequest.Builder searchRequestBuilder = new SearchRequest.Builder()
+                    .pit(pitReference(pitId))
+                    .size(pageable.getPageSize())
+                    .sort(sortOptions)
+                    .query(boolQuery)
+                    .source(sourceConfig)
+                    .aggregations(aggregations)
+                    .trackTotalHits(this::trackTotalHits);
+            if (searchAfterValues != null) {
+                searchRequestBuilder.searchAfter(searchAfterValues);
+            }
+            SearchRequest searchRequest = searchRequestBuilder.build();
+            log.info("Executing Elasticsearch Query: {}", searchRequest);
+            SearchResponse<JsonData> searchResponse = client.search(searchRequest, JsonData.class);
+            pitId = StringUtils.defaultIfBlank(searchResponse.pitId(), pitId);
+            List<T> result = extractResults(searchResponse, entityClass);
+            return withFacets(new ElasticSearchResult<>(result, searchResponse.hits().total().value()), searchResponse);
+        } finally {
+            closePointInTime(pitId);
+        }
+    }
+
+    private PointInTimeReference pitReference(String pitId) {
+        return PointInTimeReference.of(p -> p.id(pitId).keepAlive(t -> t.time(properties.getSearch().getPitKeepAlive())));
+    }
+
+    private ObjectBuilder<TrackHits> trackTotalHits(TrackHits.Builder builder) {
+        // Counting stops at the threshold, the total is then a lower bound
+        return builder.count(properties.getSearch().getTrackTotalHitsUpTo());
+    }
+
+
+    private <T> ElasticSearchResult<T> executeFromSizePagination(String indexName, Query boolQuery, Map<String, Aggregation> aggregations, List<SortOptions> sortOptions, SourceConfig sourceConfig, Pageable pageable, Class<T> entityClass) throws IOException {
+        log.info("Using from+size pagination");
+        SearchRequest searchRequest = buildFromSizeRequest(indexName, boolQuery, aggregations, sortOptions, sourceConfig, pageable);
         log.info("Executing Elasticsearch Query: {}", searchRequest);
         SearchResponse<JsonData> searchResponse = client.search(searchRequest, JsonData.class);
         List<T> result = extractResults(searchResponse, entityClass);
-        return new ElasticSearchResult<>(result, searchResponse.hits().total().value());
+        return withFacets(new ElasticSearchResult<>(result, searchResponse.hits().total().value()), searchResponse);
+    }
+
+    /**
+     * Non-blocking variant of {@link #search(String, Pageable, Class, Map, String, List, List)} for pages inside
+     * the max result window. The future completes on the HTTP client's I/O thread, callers must not block in
+     * their continuations there.
+     */
+    public <T> CompletableFuture<ElasticSearchResult<T>> searchAsync(String indexName, Pageable pageable, Class<T> entityClass, Map<String, Object> fieldSearchMap, String globalSearch, List<String> fields, List<FacetRequest> facets) {
+        if (!isWithinResultWindow(pageable)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Async search only covers pages inside the max result window"));
+        }
+        indexReadinessRegistry.ensureReady(indexName, entityClass);
+        SearchRequest searchRequest = buildFromSizeRequest(indexName,
+                queryCompiler.compile(fieldSearchMap, globalSearch, entityClass),
+                queryCompiler.compileFacets(facets),
+                buildSortOptions(removeDuplicateSortFields(pageable.getSort())),
+                buildSourceConfig(fields),
+                pageable);
+        log.info("Executing async Elasticsearch Query: {}", searchRequest);
+        return asyncClient.search(searchRequest, JsonData.class)
+                .thenApply(searchResponse -> withFacets(
+                        new ElasticSearchResult<>(extractResults(searchResponse, entityClass), searchResponse.hits().total().value()),
+                        searchResponse))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof ElasticsearchException esException && isIndexNotFound(esException)) {
+                        indexReadinessRegistry.markMissing(indexName);
+                        return new ElasticSearchResult<>(Collections.emptyList(), 0);
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    public <T> CompletableFuture<Optional<T>> getByIdAsync(String indexName, String id, Class<T> entityClass, List<String> fields) {
+        return getVersionedAsync(indexName, id, entityClass, fields)
+                .thenApply(versioned -> versioned.map(VersionedDocument::getDocument));
+    }
+
+    public <T> CompletableFuture<Optional<VersionedDocument<T>>> getVersionedAsync(String indexName, String id, Class<T> entityClass, List<String> fields) {
+        return asyncClient.get(buildGetRequest(indexName, id, fields), JsonData.class)
+                .thenApply(response -> response.found()
+                        ? Optional.of(new VersionedDocument<>(toEntity(response.id(), response.source(), entityClass),
+                                response.seqNo(), response.primaryTerm()))
+                        : Optional.<VersionedDocument<T>>empty());
+    }
+
+    /**
+     * Resolves all ids with one mget call. Results keep the order of {@code ids}, duplicates included.
+     */
+    public <T> CompletableFuture<List<MultiGetResult<T>>> multiGetAsync(String indexName, List<String> ids, Class<T> entityClass, List<String> fields) {
+        List<String> includes = sourceIncludes(fields);
+        MgetRequest request = MgetRequest.of(m -> {
+            m.index(indexName).ids(ids);
+            if (!includes.isEmpty()) {
+                m.sourceIncludes(includes);
+            } else if (fields != null && !fields.isEmpty()) {
+                m.source(src -> src.fetch(false));
+            }
+            return m;
+        });
+        return asyncClient.mget(request, JsonData.class)
+                .thenApply(response -> response.docs().stream()
+                        .map(item -> {
+                            if (item.isFailure()) {
+                                return new MultiGetResult<T>(item.failure().id(), null, item.failure().error().reason());
+                            }
+                            GetResult<JsonData> result = item.result();
+                            return new MultiGetResult<>(result.id(), result.found()
+                                    ? new VersionedDocument<>(toEntity(result.id(), result.source(), entityClass), result.seqNo(), result.primaryTerm())
+                                    : null, null);
+                        })
+                        .collect(Collectors.toList()))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof ElasticsearchException esException && isIndexNotFound(esException)) {
+                        indexReadinessRegistry.markMissing(indexName);
+                        return ids.stream()
+                                .map(id -> new MultiGetResult<T>(id, null, null))
+                                .collect(Collectors.toList());
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    /**
+     * Applies a partial document only if the stored one is still at the given sequence number and primary term,
+     * and returns the merged document as written. Completes empty when the document does not exist and
+     * exceptionally with a 409 {@link ElasticsearchException} when it was changed in between.
+     */
+    public <T> CompletableFuture<Optional<VersionedDocument<T>>> updateIfUnchangedAsync(
+            String indexName, String id, Map<String, Object> partialDocument,
+            long ifSeqNo, long ifPrimaryTerm, Class<T> entityClass) {
+        UpdateRequest<JsonData, Map<String, Object>> request = UpdateRequest.of(u -> u
+                .index(indexName)
+                .id(id)
+                .doc(partialDocument)
+                .ifSeqNo(ifSeqNo)
+                .ifPrimaryTerm(ifPrimaryTerm)
+                .source(src -> src.fetch(true)));
+        return asyncClient.update(request, JsonData.class)
+                .handle((response, e) -> {
+                    if (e == null) {
+                        return Optional.of(new VersionedDocument<>(toEntity(response.id(), response.get().source(), entityClass),
+                                response.seqNo(), response.primaryTerm()));
+                    }
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof ElasticsearchException esException && esException.status() == 404) {
+                        return Optional.empty();
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    /**
+     * Applies a partial document. Completes with false when the document does not exist.
+     */
+    public CompletableFuture<Boolean> updateAsync(String indexName, String id, Map<String, Object> document) {
+        return asyncClient.update(u -> u.index(indexName).id(id).doc(document), Map.class)
+                .handle((response, e) -> {
+                    if (e == null) {
+                        return true;
+                    }
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof ElasticsearchException esException && esException.status() == 404) {
+                        return false;
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    public CompletableFuture<Boolean> deleteAsync(String indexName, String id) {
+        return asyncClient.delete(d -> d.index(indexName).id(id))
+                .thenApply(response -> response.result() == Result.Deleted);
+    }
+
+    private GetRequest buildGetRequest(String indexName, String id, List<String> fields) {
+        List<String> includes = sourceIncludes(fields);
+        return GetRequest.of(g -> {
+            g.index(indexName).id(id);
+            if (!includes.isEmpty()) {
+                g.sourceIncludes(includes);
+            } else if (fields != null && !fields.isEmpty()) {
+                g.source(src -> src.fetch(false));
+            }
+            return g;
+        });
+    }
+
+    private SourceConfig buildSourceConfig(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+        List<String> includes = sourceIncludes(fields);
+        // Only the id was asked for, which is hit metadata and not part of _source
+        return includes.isEmpty()
+                ? SourceConfig.of(src -> src.fetch(false))
+                : SourceConfig.of(src -> src.filter(f -> f.includes(includes)));
+    }
+
+    private List<String> sourceIncludes(List<String> fields) {
+        if (fields == null) {
+            return Collections.emptyList();
+        }
+        return fields.stream()
+                .filter(StringUtils::isNotBlank)
+                .map(String::trim)
+                .filter(field -> !"id".equals(field))
+                .distinct()
+                .collect(Collectors.toList());
     }
 
     private List<SortOptions> buildSortOptions(Sort sort) {
@@ -144,6 +733,19 @@ public class ElasticSearchUtility {
         return sortOptionsList;
     }
 
+    private List<SortOptions> buildCursorSortOptions(Sort sort, boolean reverse) {
+        List<SortOptions> sortOptionsList = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            sortOptionsList.add(SortOptions.of(so -> so.field(f -> f.field(order.getProperty())
+                    .order(order.isAscending() != reverse ? SortOrder.Asc : SortOrder.Desc))));
+        }
+        sortOptionsList.add(SortOptions.of(s -> s.field(f -> f.field("createdAt").order(reverse ? SortOrder.Asc : SortOrder.Desc))));
+        // _shard_doc is unique within a PIT, so no hit is skipped or repeated between pages
+        sortOptionsList.add(SortOptions.of(s -> s.field(f -> f.field("_shard_doc").order(reverse ? SortOrder.Desc : SortOrder.Asc))));
+
+        return sortOptionsList;
+    }
+
     private Sort removeDuplicateSortFields(Sort sort) {
         if (!sort.isSorted()) {
             return sort;
@@ -160,95 +762,115 @@ public class ElasticSearchUtility {
         return Sort.by(uniqueOrder);
     }
 
-    private Query buildBoolQuery(Map<String, Object> fieldSearchMap, String globalSearch) {
-        BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
+    private SearchRequest buildFromSizeRequest(String indexName, Query boolQuery, Map<String, Aggregation> aggregations, List<SortOptions> sortOptions, SourceConfig sourceConfig, Pageable pageable) {
+        return SearchRequest.of(r -> r
+                .index(indexName)
+                .from((int) pageable.getOffset())
+                .size(pageable.getPageSize())
+                .sort(sortOptions)
+                .query(boolQuery)
+                .source(sourceConfig)
+                .aggregations(aggregations)
+                .trackTotalHits(this::trackTotalHits)
+        );
+    }
 
-        if ((fieldSearchMap == null || fieldSearchMap.isEmpty()) && StringUtils.isBlank(globalSearch)) {
-            return Query.of(q -> q.matchAll(m -> m));
-        }
+    private <T> ElasticSearchResult<T> withFacets(ElasticSearchResult<T> result, SearchResponse<JsonData> searchResponse) {
+        result.setFacets(readFacets(searchResponse));
+        return result;
+    }
 
-        //build query based on the condition
-        if (fieldSearchMap != null && !fieldSearchMap.isEmpty()) {
-            for (Map.Entry<String, Object> entry : fieldSearchMap.entrySet()) {
-                String field = entry.getKey();
-                Object searchValue = entry.getValue();
-                //exclusion filter
-                if (searchValue instanceof List<?>) {
-                    List<String> excludedValues = (List<String>) searchValue;
-                    if (!excludedValues.isEmpty()) {
-                        boolQueryBuilder.mustNot(mn -> mn.terms(t -> t.field(field)
-                                .terms(terms -> terms.value(excludedValues.stream()
-                                        .map(FieldValue::of)
-                                        .collect(Collectors.toList())))));
-                        log.info("Excluded values for field {} : {}", field, excludedValues);
-                    }
-                } else {
-                    Query fieldQuery = queryBuilderForFieldSearch(field, searchValue);
-                    if (fieldQuery != null) {
-                        boolQueryBuilder.must(fieldQuery);
-                        log.info("Added search value for field {} : {}", field, searchValue);
-                    }
-                }
-            }
-        }
-        if (StringUtils.isNotBlank(globalSearch)) {
-            //queryStringQuery alone itself does not support search with space. Searching for all keywords split by space
-            if (StringUtils.contains(globalSearch, " ")) {
-                String[] arr = globalSearch.split(" ");
-                for (String key : arr) {
-                    boolQueryBuilder.must(m -> m.queryString(qs -> qs.query("*" + key + "*")));
-                }
-            } else {
-                boolQueryBuilder.must(m -> m.queryString(qs -> qs.query(globalSearch + "*")));
-            }
+    private Map<String, List<FacetBucket>> readFacets(SearchResponse<JsonData> searchResponse) {
+        if (searchResponse.aggregations() == null || searchResponse.aggregations().isEmpty()) {
+            return null;
         }
-        return boolQueryBuilder.build()._toQuery();
+        Map<String, List<FacetBucket>> facets = new LinkedHashMap<>();
+        searchResponse.aggregations().forEach((field, aggregate) -> facets.put(field, toFacetBuckets(aggregate)));
+        return facets;
     }
 
-
-    private Query queryBuilderForFieldSearch(String fieldName, Object search) {
-        if (search instanceof String searchValue) {
-            if (StringUtils.isNotBlank(searchValue)) {
-                return Query.of(q -> q.regexp(r -> r.field(fieldName).value(searchValue + ".*")));
-            }
-        } else if (search instanceof Number) {
-            return Query.of(q -> q.term(t -> t.field(fieldName).value((Long) search)));
-        } else if (search instanceof Enum<?> enumValue) {
-        return Query.of(q -> q.term(t -> t.field(fieldName).value(enumValue.name())));
+    private List<FacetBucket> toFacetBuckets(Aggregate aggregate) {
+        if (aggregate.isSterms()) {
+            return aggregate.sterms().buckets().array().stream()
+                    .map(bucket -> new FacetBucket(bucket.key().stringValue(), null, null, bucket.docCount()))
+                    .collect(Collectors.toList());
+        } else if (aggregate.isLterms()) {
+            // Boolean fields come back as long terms with a "true"/"false" key_as_string
+            return aggregate.lterms().buckets().array().stream()
+                    .map(bucket -> new FacetBucket(StringUtils.defaultIfBlank(bucket.keyAsString(), String.valueOf(bucket.key())), null, null, bucket.docCount()))
+                    .collect(Collectors.toList());
+        } else if (aggregate.isDterms()) {
+            return aggregate.dterms().buckets().array().stream()
+                    .map(bucket -> new FacetBucket(StringUtils.defaultIfBlank(bucket.keyAsString(), String.valueOf(bucket.key())), null, null, bucket.docCount()))
+                    .collect(Collectors.toList());
+        } else if (aggregate.isRange()) {
+            return aggregate.range().buckets().array().stream()
+                    .map(bucket -> new FacetBucket(bucket.key(), bucket.from(), bucket.to(), bucket.docCount()))
+                    .collect(Collectors.toList());
         }
-        // for date "from" - "to"
-        else if (search instanceof Map<?, ?> rangeMap) {
-            if (rangeMap.containsKey("from") || rangeMap.containsKey("to")) {
-                RangeQuery.Builder rangeQueryBuilder = new RangeQuery.Builder().field(fieldName);
-                if (rangeMap.get("from") != null && StringUtils.isNotBlank(rangeMap.get("from").toString())) {
-                    rangeQueryBuilder.from((rangeMap.get("from").toString()));
-                }
-                if (rangeMap.get("to") != null && StringUtils.isNotBlank(rangeMap.get("to").toString())) {
-                    rangeQueryBuilder.to((rangeMap.get("to").toString()));
-                }
-                rangeQueryBuilder.format("yyyy-MM-dd");
-                log.info("Added date range filter for field {}", fieldName);
-                return Query.of(q -> q.range(rangeQueryBuilder.build()));
-            }
-        }
-        return null;
+        // Unmapped fields produce empty unmapped terms
+        return Collections.emptyList();
     }
 
-
     private <T> List<T> extractResults(SearchResponse<JsonData> searchResponse, Class<T> entityClass) {
-
-        List<?> content = searchResponse.hits().hits().stream()
-                .map(hit -> {
-                    Map<String, Object> map = hit.source().to(Map.class);
-                    map.remove("_class");
-                    map.put("id", hit.id());
-                    return map;
-                })
+        return searchResponse.hits().hits().stream()
+                .map(hit -> toEntity(hit, entityClass))
                 .collect(Collectors.toList());
+    }
+
+    private <T> T toEntity(Hit<JsonData> hit, Class<T> entityClass) {
+        return toEntity(hit.id(), hit.source(), entityClass);
+    }
+
+    private <T> T toEntity(String id, JsonData source, Class<T> entityClass) {
+        // Source is absent when only the id was projected
+        Map<String, Object> map = source != null ? source.to(Map.class) : new HashMap<>();
+        map.remove("_class");
+        map.put("id", id);
+        return objectMapper.convertValue(map, entityClass);
+    }
 
-        return content.stream()
-                .map(obj -> objectMapper.convertValue(obj, entityClass))
+    private List<Object> sortValues(Hit<JsonData> hit) {
+        return hit.sort().stream()
+                .map(value -> value.isAny() ? value.anyValue().to(Object.class) : value._get())
                 .collect(Collectors.toList());
     }
 
+    private FieldValue toFieldValue(Object value) {
+        if (value == null) {
+            return FieldValue.NULL;
+        } else if (value instanceof Double || value instanceof Float) {
+            return FieldValue.of(((Number) value).doubleValue());
+        } else if (value instanceof Number number) {
+            return FieldValue.of(number.longValue());
+        } else if (value instanceof Boolean bool) {
+            return FieldValue.of(bool);
+        }
+        return FieldValue.of(value.toString());
+    }
+
+    private String cursorFingerprint(Query query, Sort sort, int pageSize) {
+        return Integer.toHexString(Objects.hash(query.toString(), sort.toString(), pageSize));
+    }
+
+    private String encodeCursor(SearchCursor cursor) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    private SearchCursor decodeCursor(String token) {
+        try {
+            SearchCursor cursor = objectMapper.readValue(Base64.getUrlDecoder().decode(token), SearchCursor.class);
+            if (StringUtils.isBlank(cursor.getPitId())) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return cursor;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.modelling.guiservice.utility;
+
+import com.modelling.guiservice.model.ModelProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which indices are known to exist, so the search path does not ask Elasticsearch on every request.
+ * Indices are resolved once at startup and again only after a request failed because the index was missing.
+ */
+@Component
+@Slf4j
+public class IndexReadinessRegistry {
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    private final Set<String> readyIndices = ConcurrentHashMap.newKeySet();
+
+
+    public IndexReadinessRegistry(ElasticsearchOperations elasticsearchOperations) {
+        this.elasticsearchOperations = elasticsearchOperations;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resolveOnStartup() {
+        String indexName = ModelProfile.class.getAnnotation(Document.class).indexName();
+        try {
+            ensureReady(indexName, ModelProfile.class);
+        } catch (Exception e) {
+            // Resolved again lazily on the first request
+            log.warn("Failed to resolve index {} on startup: {}", indexName, e.getMessage());
+        }
+    }
+
+    public void ensureReady(String indexName, Class<?> entityClass) {
+        if (readyIndices.contains(indexName)) {
+            return;
+        }
+        IndexOperations indexOps = elasticsearchOperations.indexOps(IndexCoordinates.of(indexName));
+        if (!indexOps.exists()) {
+            try {
+                indexOps.create(indexOps.createSettings(entityClass), indexOps.createMapping(entityClass));
+                log.info("Created index {} with mapping of {}", indexName, entityClass.getSimpleName());
+            } catch (RuntimeException e) {
+                // Another instance may have created it in the meantime
+                if (!indexOps.exists()) {
+                    throw new RuntimeException("Failed to create index: " + indexName, e);
+                }
+            }
+        } else {
+            log.info("Index {} already present", indexName);
+        }
+        readyIndices.add(indexName);
+    }
+
+    public void markMissing(String indexName) {
+        if (readyIndices.remove(indexName)) {
+            log.warn("Index {} reported missing, it will be resolved again", indexName);
+        }
+    }
+}
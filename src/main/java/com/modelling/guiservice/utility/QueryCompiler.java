@@ -0,0 +1,295 @@
+package com.modelling.guiservice.utility;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
+import co.elastic.clients.json.JsonData;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.modelling.guiservice.config.properties.ElasticsearchProperties;
+import com.modelling.guiservice.dto.request.FacetRequest;
+import com.modelling.guiservice.model.ModelProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the request filters into an Elasticsearch query. Field filters never affect relevance, so they go
+ * into filter context where Elasticsearch can cache them; only the global search is scored. Compiled
+ * queries are immutable and memoized per request shape.
+ */
+@Component
+@Slf4j
+public class QueryCompiler {
+
+    private static final Set<FieldType> NUMERIC_FIELD_TYPES = EnumSet.of(FieldType.Integer, FieldType.Long,
+            FieldType.Short, FieldType.Byte, FieldType.Double, FieldType.Float, FieldType.Half_Float, FieldType.Scaled_Float);
+
+    // Lowercased, prefix-indexed subfield of searchable keyword fields
+    private static final String PREFIX_SUBFIELD = "prefix";
+
+    // min_gram of the global_ngram analyzer, shorter global searches produce no tokens
+    private static final int GLOBAL_SEARCH_MIN_GRAM = 2;
+
+    private static final int DEFAULT_FACET_SIZE = 10;
+
+    private static final Query MATCH_ALL = Query.of(q -> q.matchAll(m -> m));
+
+    // Mapped field kinds per entity, read once from the field annotations
+    private final Map<Class<?>, SearchableFields> searchableFields = new ConcurrentHashMap<>();
+
+    private final Cache<CompiledQueryKey, Query> compiledQueries;
+
+    public QueryCompiler(ElasticsearchProperties properties) {
+        this.compiledQueries = Caffeine.newBuilder()
+                .maximumSize(properties.getSearch().getCompiledQueryCacheSize())
+                .build();
+    }
+
+    public Query compile(Map<String, Object> fieldSearchMap, String globalSearch, Class<?> entityClass) {
+        if ((fieldSearchMap == null || fieldSearchMap.isEmpty()) && StringUtils.isBlank(globalSearch)) {
+            return MATCH_ALL;
+        }
+        // Copied so a caller mutating its map afterwards cannot corrupt the cache key
+        CompiledQueryKey key = new CompiledQueryKey(entityClass,
+                fieldSearchMap != null ? new HashMap<>(fieldSearchMap) : Map.of(),
+                StringUtils.trimToNull(globalSearch));
+        return compiledQueries.get(key, this::build);
+    }
+
+    /**
+     * Facets become aggregations of the same search request: range buckets when band edges are given,
+     * value counts otherwise. Aggregations are named after their field.
+     */
+    public Map<String, Aggregation> compileFacets(List<FacetRequest> facets) {
+        if (facets == null || facets.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Aggregation> aggregations = new LinkedHashMap<>();
+        for (FacetRequest facet : facets) {
+            if (facet == null || StringUtils.isBlank(facet.getField())) {
+                continue;
+            }
+            String field = facet.getField();
+            if (facet.getBoundaries() != null && !facet.getBoundaries().isEmpty()) {
+                aggregations.put(field, Aggregation.of(a -> a.range(r -> r.field(field).ranges(toRanges(facet.getBoundaries())))));
+            } else {
+                int size = facet.getSize() != null && facet.getSize() > 0 ? facet.getSize() : DEFAULT_FACET_SIZE;
+                aggregations.put(field, Aggregation.of(a -> a.terms(t -> t.field(field).size(size))));
+            }
+        }
+        return aggregations;
+    }
+
+    private List<AggregationRange> toRanges(List<Double> boundaries) {
+        List<Double> edges = boundaries.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        List<AggregationRange> ranges = new ArrayList<>(edges.size() + 1);
+        for (int i = 0; i <= edges.size(); i++) {
+            String from = i > 0 ? formatEdge(edges.get(i - 1)) : null;
+            String to = i < edges.size() ? formatEdge(edges.get(i)) : null;
+            ranges.add(AggregationRange.of(r -> r.key(Objects.toString(from, "*") + "-" + Objects.toString(to, "*"))
+                    .from(from)
+                    .to(to)));
+        }
+        return ranges;
+    }
+
+    private String formatEdge(Double edge) {
+        return edge % 1 == 0 ? String.valueOf(edge.longValue()) : String.valueOf(edge);
+    }
+
+    private Query build(CompiledQueryKey key) {
+        SearchableFields searchable = searchableFieldsOf(key.entityClass());
+        BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
+
+        for (Map.Entry<String, Object> entry : key.fieldSearchMap().entrySet()) {
+            String field = entry.getKey();
+            Object searchValue = entry.getValue();
+            //exclusion filter
+            if (searchValue instanceof List<?> excludedValues) {
+                if (!excludedValues.isEmpty()) {
+                    boolQueryBuilder.mustNot(mn -> mn.terms(t -> t.field(field)
+                            .terms(terms -> terms.value(excludedValues.stream()
+                                    .map(this::toFieldValue)
+                                    .collect(Collectors.toList())))));
+                    log.debug("Excluded values for field {} : {}", field, excludedValues);
+                }
+            } else {
+                Query fieldQuery;
+                if (searchable.numeric().contains(field)) {
+                    fieldQuery = queryBuilderForNumericFieldSearch(field, searchValue);
+                } else if (searchable.exact().contains(field) && searchValue instanceof String exactValue) {
+                    // Enum and boolean values are matched whole, never as a prefix
+                    fieldQuery = StringUtils.isNotBlank(exactValue)
+                            ? Query.of(q -> q.term(t -> t.field(field).value(exactValue.trim())))
+                            : null;
+                } else {
+                    fieldQuery = queryBuilderForFieldSearch(field, searchValue, searchable.prefixed().contains(field));
+                }
+                if (fieldQuery != null) {
+                    boolQueryBuilder.filter(fieldQuery);
+                    log.debug("Added filter for field {} : {}", field, searchValue);
+                }
+            }
+        }
+
+        if (key.globalSearch() == null) {
+            // Nothing to score: skip scoring entirely
+            return Query.of(q -> q.constantScore(cs -> cs.filter(boolQueryBuilder.build()._toQuery())));
+        }
+        if (key.globalSearch().length() < GLOBAL_SEARCH_MIN_GRAM && !searchable.prefixed().isEmpty()) {
+            // No n-gram to look up, a prefix of any prefix-indexed field is the closest match
+            String prefix = key.globalSearch().toLowerCase(Locale.ROOT);
+            boolQueryBuilder.must(m -> m.bool(b -> {
+                searchable.prefixed().stream().sorted().forEach(field ->
+                        b.should(sh -> sh.prefix(p -> p.field(field + "." + PREFIX_SUBFIELD).value(prefix))));
+                return b.minimumShouldMatch("1");
+            }));
+            return boolQueryBuilder.build()._toQuery();
+        }
+        // Every n-gram of every word has to be present, which is a substring match served from the index
+        boolQueryBuilder.must(m -> m.match(mt -> mt.field(ModelProfile.SEARCH_TEXT)
+                .query(key.globalSearch())
+                .operator(Operator.And)));
+        return boolQueryBuilder.build()._toQuery();
+    }
+
+    private Query queryBuilderForFieldSearch(String fieldName, Object search, boolean prefixIndexed) {
+        if (search instanceof String searchValue) {
+            if (StringUtils.isNotBlank(searchValue)) {
+                if (prefixIndexed) {
+                    // Up to the configured max_chars this is a single term lookup in the _index_prefix field
+                    String prefix = searchValue.trim().toLowerCase(Locale.ROOT);
+                    return Query.of(q -> q.prefix(p -> p.field(fieldName + "." + PREFIX_SUBFIELD).value(prefix)));
+                }
+                return Query.of(q -> q.prefix(p -> p.field(fieldName).value(searchValue)));
+            }
+        } else if (search instanceof Number || search instanceof Boolean) {
+            return Query.of(q -> q.term(t -> t.field(fieldName).value(toFieldValue(search))));
+        } else if (search instanceof Enum<?> enumValue) {
+            return Query.of(q -> q.term(t -> t.field(fieldName).value(enumValue.name())));
+        }
+        // for date "from" - "to"
+        else if (search instanceof Map<?, ?> rangeMap) {
+            if (rangeMap.containsKey("from") || rangeMap.containsKey("to")) {
+                RangeQuery.Builder rangeQueryBuilder = new RangeQuery.Builder().field(fieldName);
+                if (rangeMap.get("from") != null && StringUtils.isNotBlank(rangeMap.get("from").toString())) {
+                    rangeQueryBuilder.from((rangeMap.get("from").toString()));
+                }
+                if (rangeMap.get("to") != null && StringUtils.isNotBlank(rangeMap.get("to").toString())) {
+                    rangeQueryBuilder.to((rangeMap.get("to").toString()));
+                }
+                rangeQueryBuilder.format("yyyy-MM-dd");
+                log.debug("Added date range filter for field {}", fieldName);
+                return Query.of(q -> q.range(rangeQueryBuilder.build()));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Numeric fields take exact values and inclusive "from"/"to" ranges, which run as BKD range scans.
+     */
+    private Query queryBuilderForNumericFieldSearch(String fieldName, Object search) {
+        if (search instanceof Map<?, ?> rangeMap) {
+            Number from = toNumber(rangeMap.get("from"));
+            Number to = toNumber(rangeMap.get("to"));
+            if (from == null && to == null) {
+                return null;
+            }
+            RangeQuery.Builder rangeQueryBuilder = new RangeQuery.Builder().field(fieldName);
+            if (from != null) {
+                rangeQueryBuilder.gte(JsonData.of(from));
+            }
+            if (to != null) {
+                rangeQueryBuilder.lte(JsonData.of(to));
+            }
+            log.debug("Added numeric range filter for field {}", fieldName);
+            return Query.of(q -> q.range(rangeQueryBuilder.build()));
+        }
+        Number value = toNumber(search);
+        if (value == null) {
+            log.warn("Ignoring non-numeric search value for numeric field {} : {}", fieldName, search);
+            return null;
+        }
+        return Query.of(q -> q.term(t -> t.field(fieldName).value(toFieldValue(value))));
+    }
+
+    private Number toNumber(Object value) {
+        if (value instanceof Number number) {
+            return number;
+        }
+        if (value instanceof String text && NumberUtils.isCreatable(text.trim())) {
+            return NumberUtils.createNumber(text.trim());
+        }
+        return null;
+    }
+
+    private SearchableFields searchableFieldsOf(Class<?> entityClass) {
+        if (entityClass == null) {
+            return SearchableFields.NONE;
+        }
+        return searchableFields.computeIfAbsent(entityClass, type -> {
+            Set<String> numeric = new HashSet<>();
+            Set<String> prefixed = new HashSet<>();
+            Set<String> exact = new HashSet<>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (java.lang.reflect.Field field : current.getDeclaredFields()) {
+                    Field annotation = field.getAnnotation(Field.class);
+                    MultiField multiField = field.getAnnotation(MultiField.class);
+                    if (annotation == null && multiField != null) {
+                        annotation = multiField.mainField();
+                    }
+                    if (annotation == null) {
+                        continue;
+                    }
+                    String name = StringUtils.defaultIfEmpty(annotation.name(), field.getName());
+                    if (NUMERIC_FIELD_TYPES.contains(annotation.type())) {
+                        numeric.add(name);
+                    } else if (field.getType().isEnum() || annotation.type() == FieldType.Boolean) {
+                        exact.add(name);
+                    }
+                    if (multiField != null && Arrays.stream(multiField.otherFields())
+                            .map(InnerField::suffix)
+                            .anyMatch(PREFIX_SUBFIELD::equals)) {
+                        prefixed.add(name);
+                    }
+                }
+            }
+            return new SearchableFields(Set.copyOf(numeric), Set.copyOf(prefixed), Set.copyOf(exact));
+        });
+    }
+
+    private record SearchableFields(Set<String> numeric, Set<String> prefixed, Set<String> exact) {
+        static final SearchableFields NONE = new SearchableFields(Set.of(), Set.of(), Set.of());
+    }
+
+    private FieldValue toFieldValue(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            return FieldValue.of(((Number) value).doubleValue());
+        } else if (value instanceof Number number) {
+            return FieldValue.of(number.longValue());
+        } else if (value instanceof Boolean bool) {
+            return FieldValue.of(bool);
+        } else if (value instanceof Enum<?> enumValue) {
+            return FieldValue.of(enumValue.name());
+        }
+        return FieldValue.of(String.valueOf(value));
+    }
+
+    private record CompiledQueryKey(Class<?> entityClass, Map<String, Object> fieldSearchMap, String globalSearch) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.modelling.guiservice;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the platform pool Tomcat would use (200 threads) against one virtual thread per request on
+ * requests that mostly wait on a slow client or backend. Run with {@code mvn test -Dbenchmark=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadBenchmarkTest {
+
+    private static final int REQUESTS = 5_000;
+    private static final Duration LATENCY = Duration.ofMillis(100);
+    private static final int PLATFORM_THREADS = 200;
+
+    @Test
+    void platformPoolAgainstVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21+");
+
+        long platform = run(Executors.newFixedThreadPool(PLATFORM_THREADS));
+        ExecutorService virtual = (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        long virtualMillis = run(virtual);
+
+        log.info("{} requests of {} ms: platform pool {} ms, virtual threads {} ms",
+                REQUESTS, LATENCY.toMillis(), platform, virtualMillis);
+        // The pool serves at most 200 requests per latency period, virtual threads wait all at once
+        assertTrue(virtualMillis * 4 < platform,
+                "virtual threads took " + virtualMillis + " ms against " + platform + " ms on the platform pool");
+    }
+
+    private long run(ExecutorService executor) throws Exception {
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(executor.submit(() -> {
+                    Thread.sleep(LATENCY.toMillis());
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+    }
+}
@@ -0,0 +1,72 @@
+package com.modelling.guiservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Virtual threads blocking inside a monitor pin their carrier thread (before JDK 24), so the
+ * application's own classes must not hold one: locks on the request path are ReentrantLocks.
+ */
+class VirtualThreadPinningTest {
+
+    private static final Path CLASSES = Paths.get("target", "classes", "com", "modelling", "guiservice");
+
+    @Test
+    void noMonitorsInApplicationClasses() throws IOException {
+        List<String> monitors = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(CLASSES)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(".class")).toList()) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    new ClassReader(in).accept(new MonitorFinder(monitors), ClassReader.SKIP_DEBUG);
+                }
+            }
+        }
+        assertTrue(monitors.isEmpty(), "synchronized sections pin virtual threads: " + monitors);
+    }
+
+    private static class MonitorFinder extends ClassVisitor {
+
+        private final List<String> monitors;
+        private String className;
+
+        MonitorFinder(List<String> monitors) {
+            super(Opcodes.ASM9);
+            this.monitors = monitors;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.className = name.replace('/', '.');
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            String method = className + "#" + name;
+            if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                monitors.add(method);
+            }
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public void visitInsn(int opcode) {
+                    if (opcode == Opcodes.MONITORENTER) {
+                        monitors.add(method);
+                    }
+                }
+            };
+        }
+    }
+}
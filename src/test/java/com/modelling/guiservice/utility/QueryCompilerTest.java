@@ -0,0 +1,42 @@
+package com.modelling.guiservice.utility;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.modelling.guiservice.config.properties.ElasticsearchProperties;
+import com.modelling.guiservice.model.ModelProfile;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryCompilerTest {
+
+    private final QueryCompiler queryCompiler = new QueryCompiler(new ElasticsearchProperties());
+
+    /**
+     * A single character is shorter than the n-grams of searchText and would match nothing there.
+     */
+    @Test
+    void oneCharacterGlobalSearchUsesPrefixSubfields() {
+        Query query = queryCompiler.compile(Map.of(), " A ", ModelProfile.class);
+
+        Query search = query.bool().must().get(0);
+        assertTrue(search.isBool(), "expected a prefix fallback, got " + query);
+        assertEquals("1", search.bool().minimumShouldMatch());
+        List<String> fields = search.bool().should().stream()
+                .map(should -> should.prefix().field() + "=" + should.prefix().value())
+                .toList();
+        assertEquals(List.of("eyes.prefix=a", "name.prefix=a"), fields);
+    }
+
+    @Test
+    void longerGlobalSearchMatchesSearchText() {
+        Query query = queryCompiler.compile(Map.of(), "an", ModelProfile.class);
+
+        Query search = query.bool().must().get(0);
+        assertTrue(search.isMatch(), "expected an n-gram match, got " + query);
+        assertEquals(ModelProfile.SEARCH_TEXT, search.match().field());
+    }
+}